@@ -1,17 +1,36 @@
 package com.coronavirus.core;
 
+import java.io.File;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultValueDataset;
 import org.jfree.data.xy.XYSeries;
 
+import com.coronavirus.core.algorithms.FacilityRoutes;
+import com.coronavirus.core.algorithms.NearestFacilityTable;
+import com.coronavirus.core.algorithms.RouteCache;
 import com.coronavirus.core.algorithms.TimeManager;
+import com.coronavirus.core.disease.DiseaseModel;
+import com.coronavirus.core.engine.BatchStepper;
+import com.coronavirus.core.engine.DiseaseProgression;
+import com.coronavirus.core.engine.ParallelPopulationStepper;
+import com.coronavirus.core.engine.PopulationStepper;
+import com.coronavirus.core.engine.SimulationClock;
+import com.coronavirus.core.engine.Transmission;
+import com.coronavirus.core.engine.WorldChanges;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.core.random.RandomStreams;
 import com.coronavirus.core.report.CoronaVirusReport;
 import com.coronavirus.model.Building;
 import com.coronavirus.model.Climate;
 import com.coronavirus.model.Facility;
+import com.coronavirus.model.Family;
 import com.coronavirus.model.Human;
+import com.coronavirus.model.OccupiedHousing;
+import com.coronavirus.model.Population;
 import com.coronavirus.model.enumeration.DayOfWeek;
 import com.coronavirus.model.enumeration.HealthStatus;
 
@@ -25,7 +44,6 @@ import sim.field.grid.DoubleGrid2D;
 import sim.field.grid.IntGrid2D;
 import sim.field.grid.ObjectGrid2D;
 import sim.field.grid.SparseGrid2D;
-import sim.field.network.Network;
 import sim.util.Bag;
 
 public class CoronaVirus extends SimState {
@@ -42,7 +60,7 @@ public class CoronaVirus extends SimState {
   public SparseGrid2D nodes;
   // the road nodes closest to each of the locations
   public ObjectGrid2D closestNodes;
-  public Network roadNetwork = new Network();
+  public RoadGraph roadGraph;
   private final Parameters params;
 
   // charts and graphs
@@ -66,6 +84,8 @@ public class CoronaVirus extends SimState {
 
   private Bag allFamilies; // holding all families
   private Bag familyHousing;
+  // family housing with families living in it, by camp
+  private OccupiedHousing occupiedHousing;
   private Bag allFacilities;
   private Bag works;
   private Bag schooles;
@@ -78,6 +98,23 @@ public class CoronaVirus extends SimState {
   private CoronaVirusReport report;
   private Climate climate;
   private TimeManager time;
+  private Population population;
+  private WorldChanges worldChanges;
+  private RandomStreams randomStreams;
+  private RandomStream climateRandom;
+  private RouteCache routeCache;
+  // next hops towards the facilities, null when routes are always searched
+  private FacilityRoutes facilityRoutes;
+  // nearest facilities of every home, built with the world
+  private NearestFacilityTable nearestFacilities;
+  // how the disease evolves, the state machine of the parameters when null
+  private DiseaseModel diseaseModel;
+  // camps kept as compartments until the infection arrives, null when every human is an agent
+  private HybridPopulation hybridPopulation;
+  // steps the humans together, null when every human is scheduled on its own
+  private BatchStepper populationStepper;
+  // where the report writes its files, the working directory when null
+  private File outputDirectory;
 
   public int totalgridWidth = 10;
   public int totalgridHeight = 10;
@@ -87,24 +124,23 @@ public class CoronaVirus extends SimState {
   private double precipitation;
   private double waterAccumulationInHouses;
   // used to the human statistics
-  private int totalOfHumansSusceptible;
-  private int totalOfHumansExposed;
-  private int totalOfHumansWithMildInfection;
-  private int totalOfHumansWithSevereInfected;
-  private int totalOfHumansWithToxicInfected;
-  private int totalOfHumansRecovered;
   private int amountDeadHumans;
   // used to the medical center statistics
   private int totalVisitsMedicalCenter;
   private boolean maximumCapacityInDay;
 
   public CoronaVirus(long seed, String[] args) {
+    this(seed, new Parameters(args));
+  }
+
+  public CoronaVirus(long seed, Parameters params) {
     super(seed);
-    this.params = new Parameters(args);
+    this.params = params;
     this.time = new TimeManager();
     this.facility = new Facility();
     this.setAllFamilies(new Bag());
     this.familyHousing = new Bag();
+    this.occupiedHousing = new OccupiedHousing();
     this.works = new Bag();
     this.allFacilities = new Bag();
     this.allCampGeoGrid = new GeomGridField();
@@ -115,16 +151,11 @@ public class CoronaVirus extends SimState {
     this.foodCenter = new Bag();
     this.other = new Bag();
     this.climate = new Climate();
+    this.worldChanges = new WorldChanges(this, false);
     this.currentDay = 0;
     this.temperature = 0;
     this.precipitation = 0;
     this.waterAccumulationInHouses = 0;
-    this.totalOfHumansSusceptible = 0;
-    this.totalOfHumansExposed = 0;
-    this.totalOfHumansWithMildInfection = 0;
-    this.totalOfHumansWithSevereInfected = 0;
-    this.totalOfHumansWithToxicInfected = 0;
-    this.totalOfHumansRecovered = 0;
     this.amountDeadHumans = 0;
     this.totalVisitsMedicalCenter = 0;
     this.maximumCapacityInDay = false;
@@ -132,12 +163,28 @@ public class CoronaVirus extends SimState {
 
   public void start() {
     super.start();
+    // every agent and subsystem stream derives from the seed of this run
+    this.randomStreams = new RandomStreams(seed());
+    this.climateRandom = randomStreams.forSubsystem(RandomStreams.Subsystem.CLIMATE);
+    this.routeCache = new RouteCache(this, params.getGlobal().getRouteCacheSize());
     SimulationBuilder builder = new SimulationBuilder();
     builder.create(this, this.random);
 
-    schedule.scheduleRepeating(facility, Facility.ORDERING, 1);
-
-    this.outputStatsToReporting(schedule);
+    DiseaseProgression diseaseProgression = new DiseaseProgression(population);
+    Transmission transmission = null;
+    if (params.getGlobal().isHumanTransmission()) {
+      transmission = new Transmission(this);
+    }
+    this.populationStepper = null;
+    if (params.getGlobal().isParallelStepping()) {
+      this.populationStepper = new ParallelPopulationStepper(this);
+    } else if (this.isSteppedInBatch()) {
+      this.populationStepper = new PopulationStepper(population);
+    }
+    if (this.hybridPopulation != null) {
+      this.hybridPopulation.setPopulationStepper(populationStepper);
+    }
+    this.report = new CoronaVirusReport(this);
 
     Steppable updater = new Steppable() {
       private static final long serialVersionUID = 1L;
@@ -162,7 +209,7 @@ public class CoronaVirus extends SimState {
           for (Object object : getFamilyHousing()) {
             Building housing = (Building) object;
             double probability = params.getGlobal().getProbabilityOfChangeOverDepositedWater();
-            if (probability >= random.nextDouble()) { // 50% chance
+            if (probability >= climateRandom.nextDouble()) { // 50% chance
               housing.waterAbsorption(mm);
               if (currentDay < rainfall.size()) {
                 housing.addWater(rainfall.get(currentDay));
@@ -175,61 +222,15 @@ public class CoronaVirus extends SimState {
           }
         }
 
-        // garbage collector
-        for (Object human : allHumans.getAllObjects()) {
-          Human h = (Human) human;
-          if (h.isDead()) {
-            h.getFamily().removeMembers(h);
-            if (h.getFamily().getMembers().isEmpty()) {
-              getAllFamilies().remove(h.getFamily());
-            }
-            allHumans.allObjects.remove(h);
-            // used to the statistics
-            amountDeadHumans++;
-          }
-        }
-
-        // getting all humans
-        Bag humans = allHumans.getAllObjects();
-        int totalOfHumansSusceptible = 0;
-        int totalOfHumansExposed = 0;
-        int totalOfHumansWithMildInfection = 0;
-        int totalOfHumansWithSevereInfected = 0;
-        int totalOfHumansWithToxicInfected = 0;
-        int totalOfHumansRecovered = 0;
-        for (int i = 0; i < humans.numObjs; i++) {
-          Human human = (Human) humans.objs[i];
-          if (HealthStatus.SUSCEPTIBLE.equals(human.getCurrentHealthStatus())) {
-            totalOfHumansSusceptible++;
-          } else if (HealthStatus.EXPOSED.equals(human.getCurrentHealthStatus())) {
-            totalOfHumansExposed++;
-          } else if (HealthStatus.MILD_INFECTION.equals(human.getCurrentHealthStatus())) {
-            totalOfHumansWithMildInfection++;
-          } else if (HealthStatus.SEVERE_INFECTION.equals(human.getCurrentHealthStatus())) {
-            totalOfHumansWithSevereInfected++;
-          } else if (HealthStatus.TOXIC_INFECTION.equals(human.getCurrentHealthStatus())) {
-            totalOfHumansWithToxicInfected++;
-          } else if (human.getCurrentHealthStatus().equals(HealthStatus.RECOVERED)) {
-            totalOfHumansRecovered++;
-          }
-        }
-
-        setTotalOfHumansSusceptible(totalOfHumansSusceptible);
-        setTotalOfHumansExposed(totalOfHumansExposed);
-        setTotalOfHumansWithMildInfection(totalOfHumansWithMildInfection);
-        setTotalOfHumansWithSevereInfected(totalOfHumansWithSevereInfected);
-        setTotalOfHumansWithToxicInfected(totalOfHumansWithToxicInfected);
-        setTotalOfHumansRecovered(totalOfHumansRecovered);
-        setAmountDeadHumans(amountDeadHumans);
-
-        totalTotalPopSeries.add((double) (state.schedule.getTime()), allHumans.getAllObjects().numObjs);
+        totalTotalPopSeries.add((double) (state.schedule.getTime()), getTotalOfHumans());
         totalDeathSeries.add((double) (state.schedule.getTime()), amountDeadHumans);
-        totalSusceptibleSeries.add((double) (state.schedule.getTime()), (totalOfHumansSusceptible));
-        totalExposedSeries.add((double) (state.schedule.getTime()), (totalOfHumansExposed));
-        totalMildInfectedSeries.add((double) (state.schedule.getTime()), (totalOfHumansWithMildInfection));
-        totalSevereInfectedSeries.add((double) (state.schedule.getTime()), (totalOfHumansWithSevereInfected));
-        totalToxicInfectedSeries.add((double) (state.schedule.getTime()), (totalOfHumansWithToxicInfected));
-        totalRecoveredSeries.add((double) (state.schedule.getTime()), (totalOfHumansRecovered));
+        // the totals are kept up to date by the population on every transition
+        totalSusceptibleSeries.add((double) (state.schedule.getTime()), getTotalOfHumansSusceptible());
+        totalExposedSeries.add((double) (state.schedule.getTime()), getTotalOfHumansExposed());
+        totalMildInfectedSeries.add((double) (state.schedule.getTime()), getTotalOfHumansWithMildInfection());
+        totalSevereInfectedSeries.add((double) (state.schedule.getTime()), getTotalOfHumansWithSevereInfected());
+        totalToxicInfectedSeries.add((double) (state.schedule.getTime()), getTotalOfHumansWithToxicInfected());
+        totalRecoveredSeries.add((double) (state.schedule.getTime()), getTotalOfHumansRecovered());
 
         int totalOfMosquitoSusceptible = 0;
         int totalOfMosquitoExposed = 0;
@@ -243,29 +244,49 @@ public class CoronaVirus extends SimState {
         dayDialer.setValue(h);
       }
     };
+
+    if (params.getGlobal().isNightFastForward()) {
+      // one clock drives every phase, jumping over the minutes in which nobody acts
+      schedule.scheduleOnce(Schedule.EPOCH, SimulationClock.ORDERING, new SimulationClock(time, updater, facility,
+          diseaseProgression, transmission, populationStepper, report));
+      return;
+    }
+    schedule.scheduleRepeating(facility, Facility.ORDERING, 1);
+    // the disease evolves at the first step of every day
+    schedule.scheduleRepeating(Schedule.EPOCH, DiseaseProgression.ORDERING, diseaseProgression,
+        DiseaseProgression.MINUTES_IN_DAY);
+    if (transmission != null) {
+      schedule.scheduleRepeating(transmission, Transmission.ORDERING, 1.0);
+    }
+    if (populationStepper != null) {
+      schedule.scheduleRepeating(populationStepper, Human.ORDERING, 1.0);
+    }
+    schedule.scheduleRepeating(this.report, CoronaVirusReport.ORDERING, 1.0);
     schedule.scheduleRepeating(updater);
   }
 
+  // humans work out their own next wake-up, always the case when fast-forwarding
+  public boolean isEventDriven() {
+    return params.getGlobal().isEventDrivenScheduling() || params.getGlobal().isNightFastForward();
+  }
+
+  // humans are stepped together by a population stepper instead of one by one
+  public boolean isSteppedInBatch() {
+    return params.getGlobal().isBatchedStepping() || params.getGlobal().isParallelStepping()
+        || params.getGlobal().isNightFastForward();
+  }
+
   private boolean isNewDay() {
-    if (time.dayCount((int) schedule.getSteps()) > currentDay) {
-      currentDay = time.dayCount((int) schedule.getSteps());
+    if (time.dayCount((int) schedule.getTime()) > currentDay) {
+      currentDay = time.dayCount((int) schedule.getTime());
       return true;
     } else {
       return false;
     }
   }
 
-  private boolean isMidnight() {
-    return this.schedule.getSteps() % 1440 == 1439;
-  }
-
-  private void outputStatsToReporting(Schedule schedule) {
-    this.report = new CoronaVirusReport(this);
-    schedule.scheduleRepeating(this.report, CoronaVirusReport.ORDERING, 1.0);
-  }
-
   public String getCurrentDayOfWeek() {
-    int day = this.time.dayCount((int) schedule.getSteps());
+    int day = this.time.dayCount((int) schedule.getTime());
     return String.valueOf(DayOfWeek.getDayOfWeek(day));
   }
 
@@ -277,7 +298,7 @@ public class CoronaVirus extends SimState {
     double mm = params.getGlobal().getWaterAbsorption();
     for (Object object : getFamilyHousing()) {
       Building housing = (Building) object;
-      if (random.nextDouble() <= 0.5) { // 50% chance
+      if (climateRandom.nextDouble() <= 0.5) { // 50% chance
         housing.waterAbsorption(mm);
         housing.addWater(initial);
       }
@@ -294,6 +315,14 @@ public class CoronaVirus extends SimState {
     if (report != null) {
       this.report.finish();
     }
+    if (populationStepper != null) {
+      this.populationStepper.cleanup();
+      this.populationStepper = null;
+    }
+    if (routeCache != null) {
+      Logger.getLogger(CoronaVirus.class.getName()).log(Level.INFO, "Route cache: " + routeCache.getHits() + " hits, "
+          + routeCache.getMisses() + " misses, " + routeCache.getEvictions() + " evictions");
+    }
   }
 
   // used to the statistics
@@ -301,6 +330,14 @@ public class CoronaVirus extends SimState {
     this.totalVisitsMedicalCenter++;
   }
 
+  public File getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  public void setOutputDirectory(File outputDirectory) {
+    this.outputDirectory = outputDirectory;
+  }
+
   public Parameters getParams() {
     return params;
   }
@@ -317,6 +354,63 @@ public class CoronaVirus extends SimState {
     return time;
   }
 
+  // changes to shared state applied immediately, used when not stepping in parallel
+  public WorldChanges getWorldChanges() {
+    return worldChanges;
+  }
+
+  public RandomStreams getRandomStreams() {
+    return randomStreams;
+  }
+
+  public void setRandomStreams(RandomStreams randomStreams) {
+    this.randomStreams = randomStreams;
+  }
+
+  public RouteCache getRouteCache() {
+    return routeCache;
+  }
+
+  public FacilityRoutes getFacilityRoutes() {
+    return facilityRoutes;
+  }
+
+  public void setFacilityRoutes(FacilityRoutes facilityRoutes) {
+    this.facilityRoutes = facilityRoutes;
+  }
+
+  public DiseaseModel getDiseaseModel() {
+    return diseaseModel;
+  }
+
+  public void setDiseaseModel(DiseaseModel diseaseModel) {
+    this.diseaseModel = diseaseModel;
+  }
+
+  public NearestFacilityTable getNearestFacilities() {
+    return nearestFacilities;
+  }
+
+  public void setNearestFacilities(NearestFacilityTable nearestFacilities) {
+    this.nearestFacilities = nearestFacilities;
+  }
+
+  public HybridPopulation getHybridPopulation() {
+    return hybridPopulation;
+  }
+
+  public void setHybridPopulation(HybridPopulation hybridPopulation) {
+    this.hybridPopulation = hybridPopulation;
+  }
+
+  public Population getPopulation() {
+    return population;
+  }
+
+  public void setPopulation(Population population) {
+    this.population = population;
+  }
+
   public Climate getClimate() {
     return climate;
   }
@@ -325,6 +419,46 @@ public class CoronaVirus extends SimState {
     this.climate = climate;
   }
 
+  // called once by each human that dies, everything here takes constant time
+  public void removeDeadHuman(Human human) {
+    Family family = human.getFamily();
+    family.removeMembers(human);
+    if (family.getMembers().isEmpty()) {
+      this.removeFamily(family);
+    }
+    this.allHumans.remove(human);
+    if (this.hybridPopulation != null) {
+      this.hybridPopulation.removeAgent(human);
+    }
+    // used to the statistics
+    this.amountDeadHumans++;
+  }
+
+  // the family moves into its house
+  public void addFamily(Family family) {
+    family.setSlot(this.allFamilies.numObjs);
+    this.allFamilies.add(family);
+    Building house = family.getLocation();
+    house.addRefugeeHH(family);
+    if (house.getRefugeeHH().numObjs == 1) {
+      this.occupiedHousing.occupy(house);
+    }
+  }
+
+  // the last family takes the place of the removed one
+  private void removeFamily(Family family) {
+    int slot = family.getSlot();
+    this.allFamilies.remove(slot);
+    if (slot < this.allFamilies.numObjs) {
+      ((Family) this.allFamilies.objs[slot]).setSlot(slot);
+    }
+    Building house = family.getLocation();
+    house.removeRefugeeHH(family);
+    if (house.getRefugeeHH().numObjs == 0) {
+      this.occupiedHousing.vacate(house);
+    }
+  }
+
   public int getCurrentDay() {
     return currentDay;
   }
@@ -347,6 +481,9 @@ public class CoronaVirus extends SimState {
 
   public void setAllFamilies(Bag allFamilies) {
     this.allFamilies = allFamilies;
+    for (int i = 0; i < allFamilies.numObjs; i++) {
+      ((Family) allFamilies.objs[i]).setSlot(i);
+    }
   }
 
   public Bag getWorks() {
@@ -405,6 +542,10 @@ public class CoronaVirus extends SimState {
     this.other = other;
   }
 
+  public OccupiedHousing getOccupiedHousing() {
+    return occupiedHousing;
+  }
+
   public Bag getFamilyHousing() {
     return familyHousing;
   }
@@ -421,52 +562,37 @@ public class CoronaVirus extends SimState {
     this.market = market;
   }
 
-  public int getTotalOfHumansSusceptible() {
-    return totalOfHumansSusceptible;
+  // living humans, agents or still planned in an aggregated camp
+  public int getTotalOfHumans() {
+    int total = allHumans.getAllObjects().numObjs;
+    if (hybridPopulation != null) {
+      total += hybridPopulation.size();
+    }
+    return total;
   }
 
-  public void setTotalOfHumansSusceptible(int totalOfHumansSusceptible) {
-    this.totalOfHumansSusceptible = totalOfHumansSusceptible;
+  public int getTotalOfHumansSusceptible() {
+    return population.count(HealthStatus.SUSCEPTIBLE);
   }
 
   public int getTotalOfHumansExposed() {
-    return totalOfHumansExposed;
-  }
-
-  public void setTotalOfHumansExposed(int totalOfHumansExposed) {
-    this.totalOfHumansExposed = totalOfHumansExposed;
+    return population.count(HealthStatus.EXPOSED);
   }
 
   public int getTotalOfHumansWithMildInfection() {
-    return totalOfHumansWithMildInfection;
-  }
-
-  public void setTotalOfHumansWithMildInfection(int totalOfHumansWithMildInfection) {
-    this.totalOfHumansWithMildInfection = totalOfHumansWithMildInfection;
+    return population.count(HealthStatus.MILD_INFECTION);
   }
 
   public int getTotalOfHumansWithSevereInfected() {
-    return totalOfHumansWithSevereInfected;
-  }
-
-  public void setTotalOfHumansWithSevereInfected(int totalOfHumansWithSevereInfected) {
-    this.totalOfHumansWithSevereInfected = totalOfHumansWithSevereInfected;
+    return population.count(HealthStatus.SEVERE_INFECTION);
   }
 
   public int getTotalOfHumansWithToxicInfected() {
-    return totalOfHumansWithToxicInfected;
-  }
-
-  public void setTotalOfHumansWithToxicInfected(int totalOfHumansWithToxicInfected) {
-    this.totalOfHumansWithToxicInfected = totalOfHumansWithToxicInfected;
+    return population.count(HealthStatus.TOXIC_INFECTION);
   }
 
   public int getTotalOfHumansRecovered() {
-    return totalOfHumansRecovered;
-  }
-
-  public void setTotalOfHumansRecovered(int totalOfHumansRecovered) {
-    this.totalOfHumansRecovered = totalOfHumansRecovered;
+    return population.count(HealthStatus.RECOVERED);
   }
 
   public int getTotalVisitsMedicalCenter() {
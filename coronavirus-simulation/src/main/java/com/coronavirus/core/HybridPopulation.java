@@ -0,0 +1,460 @@
+package com.coronavirus.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import com.coronavirus.core.algorithms.NearestFacilityTable;
+import com.coronavirus.core.engine.BatchStepper;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Family;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.ActivityMapping;
+import com.coronavirus.model.enumeration.HealthStatus;
+import com.coronavirus.model.enumeration.Sex;
+
+import sim.util.Bag;
+import sim.util.IntBag;
+
+/**
+ * Camps kept as compartments until the infection arrives. The families of an
+ * aggregated camp are planned as usual, with their homes, ages and sexes, but
+ * only a few bytes per human are kept and the population counts the humans by
+ * health status. As soon as an infectious human stands in one of its
+ * buildings, the camp is expanded: its families move in and every planned
+ * human becomes an agent, under the same disease model as everyone else.
+ * Planned humans also meet the infection at the facilities they would use as
+ * agents, the nearest ones of their activities: each is taken to be there as
+ * often as the agents using the facilities of that activity are, and its camp
+ * is expanded as soon as one of them is infected there. Since a camp is
+ * expanded by its first contact with the infection, the only transition its
+ * compartments see is the vaccine taking effect.
+ */
+public class HybridPopulation implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final byte MALE = 1;
+  private static final byte VACCINATED = 2;
+  // activities at facilities a planned human takes part in, as in Activity
+  private static final ActivityMapping[] FACILITY_ACTIVITIES = { ActivityMapping.WORK, ActivityMapping.SCHOOL,
+      ActivityMapping.RELIGION_ACTIVITY, ActivityMapping.MARKET };
+  private final CoronaVirus coronaVirus;
+  // aggregated camps by camp id, null once expanded
+  private Camp[] camps;
+  // home of every family, planned or expanded, by family id; relatives are drawn among them
+  private final Bag homes;
+  private int[] relativeOrder;
+  // planned humans left in the aggregated camps
+  private int numPlanned;
+  // ids of the aggregated camps with planned users of each facility
+  private final IdentityHashMap<Building, IntBag> campsByFacility;
+  // agents using the facilities of each activity, by activity ordinal
+  private final int[] agentUsers;
+  // agents at the facilities of each activity at the attendance step, -1 until counted
+  private final int[] present;
+  private int attendanceStep;
+  // new agents are added to it once the run started, null when every human is scheduled on its own
+  private BatchStepper populationStepper;
+
+  public HybridPopulation(CoronaVirus coronaVirus) {
+    this.coronaVirus = coronaVirus;
+    this.camps = new Camp[0];
+    this.homes = new Bag();
+    this.numPlanned = 0;
+    this.campsByFacility = new IdentityHashMap<Building, IntBag>();
+    this.agentUsers = new int[ActivityMapping.values().length];
+    this.present = new int[ActivityMapping.values().length];
+    this.attendanceStep = -1;
+  }
+
+  // plan a family living in the building, its members added next
+  public void addFamily(Building home) {
+    Camp camp = this.getCamp(home.getCampID());
+    home.addPlannedFamily();
+    camp.addFamily(home, this.homes.numObjs);
+    this.homes.add(home);
+  }
+
+  // plan a member of the family added last, with the facilities it would go to
+  public void addMember(int age, Sex sex) {
+    Building home = (Building) this.homes.objs[this.homes.numObjs - 1];
+    Camp camp = this.getCamp(home.getCampID());
+    int member = camp.numHumans;
+    camp.addMember(age, Sex.M.equals(sex) ? MALE : 0);
+    this.coronaVirus.getPopulation().addAggregated(HealthStatus.SUSCEPTIBLE, 1);
+    this.numPlanned++;
+    boolean worker = SimulationBuilder.isWorker(age, sex);
+    boolean student = SimulationBuilder.isStudent(age);
+    for (ActivityMapping activity : FACILITY_ACTIVITIES) {
+      if (usesFacilities(activity, worker, student)) {
+        this.addUser(camp, member, home, activity);
+      }
+    }
+  }
+
+  // a worker goes to work on week days, and otherwise to school while a student
+  private static boolean usesFacilities(ActivityMapping activity, boolean worker, boolean student) {
+    switch (activity) {
+    case WORK:
+      return worker;
+    case SCHOOL:
+      return !worker && student;
+    default:
+      return true;
+    }
+  }
+
+  // one of the nearest facilities of the activity, drawn once as the human is planned
+  private void addUser(Camp camp, int member, Building home, ActivityMapping activity) {
+    NearestFacilityTable nearestFacilities = this.coronaVirus.getNearestFacilities();
+    if (nearestFacilities == null || !nearestFacilities.contains(home, activity)) {
+      return;
+    }
+    int ties = nearestFacilities.countNearest(home, activity);
+    if (ties == 0) {
+      return;
+    }
+    Building facility = nearestFacilities.getNearest(home, activity,
+        ties == 1 ? 0 : this.coronaVirus.random.nextInt(ties));
+    IntBag users = camp.users.get(facility);
+    if (users == null) {
+      users = new IntBag();
+      camp.users.put(facility, users);
+      IntBag campIDs = this.campsByFacility.get(facility);
+      if (campIDs == null) {
+        campIDs = new IntBag();
+        this.campsByFacility.put(facility, campIDs);
+      }
+      campIDs.add(camp.campID);
+    }
+    users.add(member);
+  }
+
+  // an agent counts among the users of the facilities of its activities
+  public void addAgent(Human human) {
+    this.countAgent(human, 1);
+  }
+
+  public void removeAgent(Human human) {
+    this.countAgent(human, -1);
+  }
+
+  private void countAgent(Human human, int amount) {
+    for (ActivityMapping activity : FACILITY_ACTIVITIES) {
+      if (usesFacilities(activity, human.isWorker(), human.isStudent())) {
+        this.agentUsers[activity.ordinal()] += amount;
+      }
+    }
+  }
+
+  // planned users of a facility with infectious agents are infected as if the
+  // share of them the attendance gives were there; a camp with an infection is
+  // expanded and that many of its susceptible users of the facility infected
+  public void exposeAtFacility(Building facility, double probability, int step, RandomStream random) {
+    IntBag campIDs = this.campsByFacility.get(facility);
+    if (campIDs == null) {
+      return;
+    }
+    double attendance = this.attendance(facility.getActivityMapping(), step);
+    if (attendance <= 0) {
+      return;
+    }
+    Population population = this.coronaVirus.getPopulation();
+    for (int c = campIDs.numObjs - 1; c >= 0; c--) {
+      Camp camp = this.camps[campIDs.objs[c]];
+      if (camp == null) {
+        // expanded, its humans are exposed as agents now
+        campIDs.remove(c);
+        continue;
+      }
+      IntBag users = camp.users.get(facility);
+      double susceptible = (double) camp.counts[HealthStatus.SUSCEPTIBLE.ordinal()] / camp.numHumans;
+      int infections = random.nextBinomial(users.numObjs, attendance * susceptible * probability);
+      if (infections == 0) {
+        continue;
+      }
+      int first = this.expand(camp.campID);
+      campIDs.remove(c);
+      // victims drawn among the users left, those the vaccine protects are passed over
+      for (int left = users.numObjs; infections > 0 && left > 0; left--) {
+        int pick = random.nextInt(left);
+        int member = users.objs[pick];
+        users.objs[pick] = users.objs[left - 1];
+        Human human = population.humans[first + member];
+        if (HealthStatus.SUSCEPTIBLE.equals(human.getCurrentHealthStatus())) {
+          human.infected();
+          infections--;
+        }
+      }
+    }
+  }
+
+  // share of the agents using the facilities of the activity who are at one of them now
+  private double attendance(ActivityMapping activity, int step) {
+    if (step != this.attendanceStep) {
+      Arrays.fill(this.present, -1);
+      this.attendanceStep = step;
+    }
+    int a = activity.ordinal();
+    if (this.agentUsers[a] <= 0) {
+      return 0;
+    }
+    if (this.present[a] < 0) {
+      Bag facilities = this.facilitiesOf(activity);
+      int present = 0;
+      for (int i = 0; facilities != null && i < facilities.numObjs; i++) {
+        present += ((Building) facilities.objs[i]).getHumans().numObjs;
+      }
+      this.present[a] = present;
+    }
+    return Math.min(1.0, (double) this.present[a] / this.agentUsers[a]);
+  }
+
+  private Bag facilitiesOf(ActivityMapping activity) {
+    switch (activity) {
+    case WORK:
+      return this.coronaVirus.getWorks();
+    case SCHOOL:
+      return this.coronaVirus.getSchooles();
+    case RELIGION_ACTIVITY:
+      return this.coronaVirus.getMosques();
+    case MARKET:
+      return this.coronaVirus.getMarket();
+    default:
+      return null;
+    }
+  }
+
+  public boolean isAggregated(int campID) {
+    return campID < this.camps.length && this.camps[campID] != null;
+  }
+
+  public int size() {
+    return numPlanned;
+  }
+
+  // vaccinate the planned human with the given index among all those left
+  public void vaccinate(int planned) {
+    Camp camp = this.campOf(planned);
+    int member = planned - this.firstPlanned(camp);
+    if ((camp.flags[member] & VACCINATED) != 0) {
+      return;
+    }
+    camp.flags[member] |= VACCINATED;
+    camp.vaccinatedMembers.add(member);
+    camp.vaccineEffectDays.add(this.coronaVirus.getPopulation().getDiseaseCalendar().getNextDay()
+        + Human.VACCINE_EFFECT_DELAY);
+  }
+
+  // the planned human with the given index among all those left, as an agent
+  public Human expandHuman(int planned) {
+    Camp camp = this.campOf(planned);
+    int member = planned - this.firstPlanned(camp);
+    int first = this.expand(camp.campID);
+    return this.coronaVirus.getPopulation().humans[first + member];
+  }
+
+  // the planned humans of the camp become agents, returns the index of the first one
+  public int expand(int campID) {
+    Camp camp = this.camps[campID];
+    this.camps[campID] = null;
+    Population population = this.coronaVirus.getPopulation();
+    for (int s = 0; s < camp.counts.length; s++) {
+      population.addAggregated(HealthStatus.fromOrdinal(s), -camp.counts[s]);
+    }
+    this.numPlanned -= camp.numHumans;
+
+    int first = population.numHumans;
+    int member = 0;
+    for (int f = 0; f < camp.numFamilies; f++) {
+      Building home = (Building) camp.homes.objs[f];
+      home.removePlannedFamily();
+      Family family = new Family(home);
+      this.coronaVirus.addFamily(family);
+      this.defineRelatives(family, camp.familyIds[f]);
+      for (; member < camp.familyEnd[f]; member++) {
+        Sex sex = (camp.flags[member] & MALE) != 0 ? Sex.M : Sex.F;
+        Human human = SimulationBuilder.addHuman(camp.ages[member], sex, family, this.coronaVirus);
+        if (this.populationStepper != null) {
+          this.populationStepper.add(human);
+        }
+      }
+    }
+    // a vaccine that took effect makes the agent recovered at once, the others are scheduled
+    for (int v = 0; v < camp.vaccinatedMembers.numObjs; v++) {
+      population.humans[first + camp.vaccinatedMembers.objs[v]].applyVaccine(camp.vaccineEffectDays.objs[v]);
+    }
+    return first;
+  }
+
+  // vaccines given to planned humans take effect in the compartments on their own day
+  public void progress(int day) {
+    Population population = this.coronaVirus.getPopulation();
+    for (int c = 0; c < this.camps.length; c++) {
+      Camp camp = this.camps[c];
+      if (camp == null) {
+        continue;
+      }
+      int effective = 0;
+      while (camp.numEffective < camp.vaccineEffectDays.numObjs
+          && camp.vaccineEffectDays.objs[camp.numEffective] <= day) {
+        camp.numEffective++;
+        effective++;
+      }
+      if (effective == 0) {
+        continue;
+      }
+      camp.counts[HealthStatus.SUSCEPTIBLE.ordinal()] -= effective;
+      camp.counts[HealthStatus.RECOVERED.ordinal()] += effective;
+      population.addAggregated(HealthStatus.SUSCEPTIBLE, -effective);
+      population.addAggregated(HealthStatus.RECOVERED, effective);
+    }
+  }
+
+  public void setPopulationStepper(BatchStepper populationStepper) {
+    this.populationStepper = populationStepper;
+  }
+
+  // same draw as for the families built at once, among every family planned or expanded
+  private void defineRelatives(Family family, int familyId) {
+    int max = this.coronaVirus.getParams().getGlobal().getMaximumNumberRelativeFamily();
+    int families = this.homes.numObjs;
+    int tot = families > max ? max : families;
+    if (tot < 2) {
+      return;
+    }
+    if (this.relativeOrder == null || this.relativeOrder.length != families) {
+      this.relativeOrder = new int[families];
+      for (int k = 0; k < families; k++) {
+        this.relativeOrder[k] = k;
+      }
+    }
+    int numOfRel = 1 + this.coronaVirus.random.nextInt(tot - 1);
+    for (int jj = 0; jj < numOfRel; jj++) {
+      int idx = jj + this.coronaVirus.random.nextInt(families - jj);
+      int temp = this.relativeOrder[idx];
+      this.relativeOrder[idx] = this.relativeOrder[jj];
+      this.relativeOrder[jj] = temp;
+    }
+    for (int jj = 0; jj < numOfRel; jj++) {
+      if (this.relativeOrder[jj] != familyId) {
+        family.addRelative((Building) this.homes.objs[this.relativeOrder[jj]]);
+      }
+    }
+  }
+
+  // aggregated camp holding the planned human, camps taken in id order
+  private Camp campOf(int planned) {
+    int first = 0;
+    for (int c = 0; c < this.camps.length; c++) {
+      Camp camp = this.camps[c];
+      if (camp == null) {
+        continue;
+      }
+      if (planned < first + camp.numHumans) {
+        return camp;
+      }
+      first += camp.numHumans;
+    }
+    throw new IndexOutOfBoundsException("No planned human " + planned + " among " + this.numPlanned);
+  }
+
+  private int firstPlanned(Camp camp) {
+    int first = 0;
+    for (int c = 0; c < camp.campID; c++) {
+      if (this.camps[c] != null) {
+        first += this.camps[c].numHumans;
+      }
+    }
+    return first;
+  }
+
+  private Camp getCamp(int campID) {
+    if (campID >= this.camps.length) {
+      Camp[] camps = new Camp[campID + 1];
+      System.arraycopy(this.camps, 0, camps, 0, this.camps.length);
+      this.camps = camps;
+    }
+    if (this.camps[campID] == null) {
+      this.camps[campID] = new Camp(campID);
+    }
+    return this.camps[campID];
+  }
+
+  /**
+   * The plan of the families of an aggregated camp and its compartments.
+   */
+  static class Camp implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    final int campID;
+    final Bag homes;
+    // family id and end of the members of each family
+    int[] familyIds;
+    int[] familyEnd;
+    int numFamilies;
+    byte[] ages;
+    byte[] flags;
+    int numHumans;
+    // planned humans in each health status, by ordinal
+    final int[] counts;
+    // vaccinated members and the day their vaccine takes effect, in the order
+    // they were vaccinated, so by day; the first numEffective took effect
+    final IntBag vaccinatedMembers;
+    final IntBag vaccineEffectDays;
+    int numEffective;
+    // members that would use each facility
+    final IdentityHashMap<Building, IntBag> users;
+
+    Camp(int campID) {
+      this.campID = campID;
+      this.homes = new Bag();
+      this.familyIds = new int[16];
+      this.familyEnd = new int[16];
+      this.ages = new byte[64];
+      this.flags = new byte[64];
+      this.counts = new int[HealthStatus.values().length];
+      this.vaccinatedMembers = new IntBag();
+      this.vaccineEffectDays = new IntBag();
+      this.users = new IdentityHashMap<Building, IntBag>();
+    }
+
+    void addFamily(Building home, int familyId) {
+      if (this.numFamilies == this.familyEnd.length) {
+        this.familyIds = grow(this.familyIds);
+        this.familyEnd = grow(this.familyEnd);
+      }
+      this.homes.add(home);
+      this.familyIds[this.numFamilies] = familyId;
+      this.familyEnd[this.numFamilies] = this.numHumans;
+      this.numFamilies++;
+    }
+
+    void addMember(int age, byte flags) {
+      if (this.numHumans == this.ages.length) {
+        this.ages = grow(this.ages);
+        this.flags = grow(this.flags);
+      }
+      this.ages[this.numHumans] = (byte) age;
+      this.flags[this.numHumans] = flags;
+      this.numHumans++;
+      this.familyEnd[this.numFamilies - 1] = this.numHumans;
+      this.counts[HealthStatus.SUSCEPTIBLE.ordinal()]++;
+    }
+
+    private static int[] grow(int[] array) {
+      int[] larger = new int[array.length * 2];
+      System.arraycopy(array, 0, larger, 0, array.length);
+      return larger;
+    }
+
+    private static byte[] grow(byte[] array) {
+      byte[] larger = new byte[array.length * 2];
+      System.arraycopy(array, 0, larger, 0, array.length);
+      return larger;
+    }
+  }
+
+}
@@ -1,19 +1,15 @@
 package com.coronavirus.core;
 
-import java.util.ArrayList;
-
 import com.coronavirus.model.Building;
 
-import sim.field.network.Edge;
-
 public class Node {
 
   private Building location;
-  private ArrayList<Edge> links;
+  private int id; // position in the road graph
 
-  public Node(Building l) {
+  public Node(Building l, int id) {
     setLocation(l);
-    setLinks(new ArrayList<Edge>());
+    this.id = id;
   }
 
   public Building getLocation() {
@@ -24,12 +20,8 @@ public class Node {
     this.location = location;
   }
 
-  public ArrayList<Edge> getLinks() {
-    return links;
-  }
-
-  public void setLinks(ArrayList<Edge> links) {
-    this.links = links;
+  public int getId() {
+    return id;
   }
 
-}
\ No newline at end of file
+}
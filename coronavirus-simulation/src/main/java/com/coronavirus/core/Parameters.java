@@ -16,6 +16,11 @@ public class Parameters {
     }
   }
 
+  // used by the batch runner, which builds the database of every run itself
+  public Parameters(ParameterDatabase parameterDB) {
+    loadParameters(parameterDB);
+  }
+
   // <editor-fold defaultstate="collapsed" desc="ECJ ParameterDatabase methods">
   /**
    * Initialize parameter database from file
@@ -54,6 +59,7 @@ public class Parameters {
   private void loadParameters(ParameterDatabase parameterDB) {
     int intParameter = 0;
     double doubleParameter = 0;
+    boolean booleanParameter = false;
 
     intParameter = returnIntParameter(parameterDB, "InitialMosquitoesNumber", global.initialMosquitoesNumber);
     global.initialMosquitoesNumber = intParameter;
@@ -160,10 +166,91 @@ public class Parameters {
     doubleParameter = returnDoubleParameter(parameterDB, "probabilityOfDeath", global.probabilityOfDeath);
     global.probabilityOfDeath = doubleParameter;
 
+    intParameter = returnIntParameter(parameterDB, "minimumIncubationPeriod", global.minimumIncubationPeriod);
+    global.minimumIncubationPeriod = intParameter;
+
+    intParameter = returnIntParameter(parameterDB, "maximumIncubationPeriod", global.maximumIncubationPeriod);
+    global.maximumIncubationPeriod = intParameter;
+
+    intParameter = returnIntParameter(parameterDB, "minimumInfectionPeriod", global.minimumInfectionPeriod);
+    global.minimumInfectionPeriod = intParameter;
+
+    intParameter = returnIntParameter(parameterDB, "maximumInfectionPeriod", global.maximumInfectionPeriod);
+    global.maximumInfectionPeriod = intParameter;
+
+    intParameter = returnIntParameter(parameterDB, "minimumToxicPeriod", global.minimumToxicPeriod);
+    global.minimumToxicPeriod = intParameter;
+
+    intParameter = returnIntParameter(parameterDB, "maximumToxicPeriod", global.maximumToxicPeriod);
+    global.maximumToxicPeriod = intParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "humanTransmission", global.humanTransmission);
+    global.humanTransmission = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "aggregatedTransmission", global.aggregatedTransmission);
+    global.aggregatedTransmission = booleanParameter;
+
+    doubleParameter = returnDoubleParameter(parameterDB, "contactRateAtHome", global.contactRateAtHome);
+    global.contactRateAtHome = doubleParameter;
+
+    doubleParameter = returnDoubleParameter(parameterDB, "contactRateAtWork", global.contactRateAtWork);
+    global.contactRateAtWork = doubleParameter;
+
+    doubleParameter = returnDoubleParameter(parameterDB, "contactRateAtSchool", global.contactRateAtSchool);
+    global.contactRateAtSchool = doubleParameter;
+
+    doubleParameter = returnDoubleParameter(parameterDB, "contactRateAtMarket", global.contactRateAtMarket);
+    global.contactRateAtMarket = doubleParameter;
+
+    doubleParameter = returnDoubleParameter(parameterDB, "contactRateAtMosque", global.contactRateAtMosque);
+    global.contactRateAtMosque = doubleParameter;
+
+    doubleParameter = returnDoubleParameter(parameterDB, "contactRateAtHealthCenter", global.contactRateAtHealthCenter);
+    global.contactRateAtHealthCenter = doubleParameter;
+
     doubleParameter = returnDoubleParameter(parameterDB, "probabilityOfChangeOverDepositedWater",
         global.probabilityOfChangeOverDepositedWater);
     global.probabilityOfChangeOverDepositedWater = doubleParameter;
 
+    booleanParameter = returnBooleanParameter(parameterDB, "eventDrivenScheduling", global.eventDrivenScheduling);
+    global.eventDrivenScheduling = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "batchedStepping", global.batchedStepping);
+    global.batchedStepping = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "parallelStepping", global.parallelStepping);
+    global.parallelStepping = booleanParameter;
+
+    intParameter = returnIntParameter(parameterDB, "numberOfThreads", global.numberOfThreads);
+    global.numberOfThreads = intParameter;
+
+    intParameter = returnIntParameter(parameterDB, "parallelPartitionSize", global.parallelPartitionSize);
+    global.parallelPartitionSize = intParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "nightFastForward", global.nightFastForward);
+    global.nightFastForward = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "worldSnapshot", global.worldSnapshot);
+    global.worldSnapshot = booleanParameter;
+
+    intParameter = returnIntParameter(parameterDB, "routeCacheSize", global.routeCacheSize);
+    global.routeCacheSize = intParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "facilityRoutes", global.facilityRoutes);
+    global.facilityRoutes = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "tripTimeMovement", global.tripTimeMovement);
+    global.tripTimeMovement = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "inTransitState", global.inTransitState);
+    global.inTransitState = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "visitRelatives", global.visitRelatives);
+    global.visitRelatives = booleanParameter;
+
+    booleanParameter = returnBooleanParameter(parameterDB, "hybridPopulation", global.hybridPopulation);
+    global.hybridPopulation = booleanParameter;
+
   }
 
   public int returnIntParameter(ParameterDatabase paramDB, String parameterName, int defaultValue) {
@@ -202,6 +289,22 @@ public class Parameters {
     private double probabilityFromSevereInfectionTotoxicInfection = 0.1;
     private double transmissionProbabilityFromVectorToHuman = 0.9;
     private double probabilityOfDeath = 0.5;
+    // days spent in each stage of the disease, drawn between the minimum and maximum
+    private int minimumIncubationPeriod = 3;
+    private int maximumIncubationPeriod = 6;
+    private int minimumInfectionPeriod = 3;
+    private int maximumInfectionPeriod = 4;
+    private int minimumToxicPeriod = 8;
+    private int maximumToxicPeriod = 8;
+    // human-to-human transmission, per minute shared with an infectious human in a building
+    private boolean humanTransmission = true;
+    private boolean aggregatedTransmission = false; // binomial number of infections per building
+    private double contactRateAtHome = 0.00003;
+    private double contactRateAtWork = 0.00001;
+    private double contactRateAtSchool = 0.00002;
+    private double contactRateAtMarket = 0.00001;
+    private double contactRateAtMosque = 0.00002;
+    private double contactRateAtHealthCenter = 0.00001;
     // parameters to intervention
     private int healthFacilityCapacity = 50;
     private int quantityOfMedicineAvailable = 200;
@@ -223,6 +326,20 @@ public class Parameters {
     private double probabilityOfAddingMosquitoesToBuildingsWithMosquitoes = 0.01;
     private double probabilityOfHumanLeavingLateFromHome = 0.1;
     private double probabilityOfChangeOverDepositedWater = 0.5;
+    // parameters to the simulation engine
+    private boolean eventDrivenScheduling = false;
+    private boolean batchedStepping = false;
+    private boolean parallelStepping = false;
+    private int numberOfThreads = 0; // zero uses every available processor
+    private int parallelPartitionSize = 16; // side of a partition block, in cells
+    private boolean nightFastForward = false; // skip the minutes in which nobody can act
+    private boolean worldSnapshot = false; // build the world from a snapshot, without the map layers
+    private int routeCacheSize = 10000; // routes kept between pairs of road nodes
+    private boolean facilityRoutes = false; // precomputed shortest-path trees rooted at the facilities
+    private boolean tripTimeMovement = false; // jump to the goal once the trip time is over, no walking
+    private boolean inTransitState = true; // with trip times, travellers are in no building on the way
+    private boolean visitRelatives = false; // social visits go to the relatives of the family first
+    private boolean hybridPopulation = false; // camps stay compartments until the infection arrives
 
     public void setInitialHumansNumber(int num) {
       this.initialHumansNumber = num;
@@ -467,6 +584,54 @@ public class Parameters {
       this.probabilityOfDeath = probabilityOfDeath;
     }
 
+    public int getMinimumIncubationPeriod() {
+      return minimumIncubationPeriod;
+    }
+
+    public void setMinimumIncubationPeriod(int minimumIncubationPeriod) {
+      this.minimumIncubationPeriod = minimumIncubationPeriod;
+    }
+
+    public int getMaximumIncubationPeriod() {
+      return maximumIncubationPeriod;
+    }
+
+    public void setMaximumIncubationPeriod(int maximumIncubationPeriod) {
+      this.maximumIncubationPeriod = maximumIncubationPeriod;
+    }
+
+    public int getMinimumInfectionPeriod() {
+      return minimumInfectionPeriod;
+    }
+
+    public void setMinimumInfectionPeriod(int minimumInfectionPeriod) {
+      this.minimumInfectionPeriod = minimumInfectionPeriod;
+    }
+
+    public int getMaximumInfectionPeriod() {
+      return maximumInfectionPeriod;
+    }
+
+    public void setMaximumInfectionPeriod(int maximumInfectionPeriod) {
+      this.maximumInfectionPeriod = maximumInfectionPeriod;
+    }
+
+    public int getMinimumToxicPeriod() {
+      return minimumToxicPeriod;
+    }
+
+    public void setMinimumToxicPeriod(int minimumToxicPeriod) {
+      this.minimumToxicPeriod = minimumToxicPeriod;
+    }
+
+    public int getMaximumToxicPeriod() {
+      return maximumToxicPeriod;
+    }
+
+    public void setMaximumToxicPeriod(int maximumToxicPeriod) {
+      this.maximumToxicPeriod = maximumToxicPeriod;
+    }
+
     public double getProbabilityOfChangeOverDepositedWater() {
       return probabilityOfChangeOverDepositedWater;
     }
@@ -474,5 +639,173 @@ public class Parameters {
     public void setProbabilityOfChangeOverDepositedWater(double probabilityOfChangeOverDepositedWater) {
       this.probabilityOfChangeOverDepositedWater = probabilityOfChangeOverDepositedWater;
     }
+
+    public boolean isEventDrivenScheduling() {
+      return eventDrivenScheduling;
+    }
+
+    public void setEventDrivenScheduling(boolean eventDrivenScheduling) {
+      this.eventDrivenScheduling = eventDrivenScheduling;
+    }
+
+    public boolean isBatchedStepping() {
+      return batchedStepping;
+    }
+
+    public void setBatchedStepping(boolean batchedStepping) {
+      this.batchedStepping = batchedStepping;
+    }
+
+    public boolean isParallelStepping() {
+      return parallelStepping;
+    }
+
+    public void setParallelStepping(boolean parallelStepping) {
+      this.parallelStepping = parallelStepping;
+    }
+
+    public int getNumberOfThreads() {
+      return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+      this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getParallelPartitionSize() {
+      return parallelPartitionSize;
+    }
+
+    public void setParallelPartitionSize(int parallelPartitionSize) {
+      this.parallelPartitionSize = parallelPartitionSize;
+    }
+
+    public boolean isNightFastForward() {
+      return nightFastForward;
+    }
+
+    public void setNightFastForward(boolean nightFastForward) {
+      this.nightFastForward = nightFastForward;
+    }
+
+    public boolean isWorldSnapshot() {
+      return worldSnapshot;
+    }
+
+    public void setWorldSnapshot(boolean worldSnapshot) {
+      this.worldSnapshot = worldSnapshot;
+    }
+
+    public int getRouteCacheSize() {
+      return routeCacheSize;
+    }
+
+    public void setRouteCacheSize(int routeCacheSize) {
+      this.routeCacheSize = routeCacheSize;
+    }
+
+    public boolean isFacilityRoutes() {
+      return facilityRoutes;
+    }
+
+    public void setFacilityRoutes(boolean facilityRoutes) {
+      this.facilityRoutes = facilityRoutes;
+    }
+
+    public boolean isTripTimeMovement() {
+      return tripTimeMovement;
+    }
+
+    public void setTripTimeMovement(boolean tripTimeMovement) {
+      this.tripTimeMovement = tripTimeMovement;
+    }
+
+    public boolean isInTransitState() {
+      return inTransitState;
+    }
+
+    public void setInTransitState(boolean inTransitState) {
+      this.inTransitState = inTransitState;
+    }
+
+    public boolean isVisitRelatives() {
+      return visitRelatives;
+    }
+
+    public void setVisitRelatives(boolean visitRelatives) {
+      this.visitRelatives = visitRelatives;
+    }
+
+    public boolean isHybridPopulation() {
+      return hybridPopulation;
+    }
+
+    public void setHybridPopulation(boolean hybridPopulation) {
+      this.hybridPopulation = hybridPopulation;
+    }
+
+    public boolean isHumanTransmission() {
+      return humanTransmission;
+    }
+
+    public void setHumanTransmission(boolean humanTransmission) {
+      this.humanTransmission = humanTransmission;
+    }
+
+    public boolean isAggregatedTransmission() {
+      return aggregatedTransmission;
+    }
+
+    public void setAggregatedTransmission(boolean aggregatedTransmission) {
+      this.aggregatedTransmission = aggregatedTransmission;
+    }
+
+    public double getContactRateAtHome() {
+      return contactRateAtHome;
+    }
+
+    public void setContactRateAtHome(double contactRateAtHome) {
+      this.contactRateAtHome = contactRateAtHome;
+    }
+
+    public double getContactRateAtWork() {
+      return contactRateAtWork;
+    }
+
+    public void setContactRateAtWork(double contactRateAtWork) {
+      this.contactRateAtWork = contactRateAtWork;
+    }
+
+    public double getContactRateAtSchool() {
+      return contactRateAtSchool;
+    }
+
+    public void setContactRateAtSchool(double contactRateAtSchool) {
+      this.contactRateAtSchool = contactRateAtSchool;
+    }
+
+    public double getContactRateAtMarket() {
+      return contactRateAtMarket;
+    }
+
+    public void setContactRateAtMarket(double contactRateAtMarket) {
+      this.contactRateAtMarket = contactRateAtMarket;
+    }
+
+    public double getContactRateAtMosque() {
+      return contactRateAtMosque;
+    }
+
+    public void setContactRateAtMosque(double contactRateAtMosque) {
+      this.contactRateAtMosque = contactRateAtMosque;
+    }
+
+    public double getContactRateAtHealthCenter() {
+      return contactRateAtHealthCenter;
+    }
+
+    public void setContactRateAtHealthCenter(double contactRateAtHealthCenter) {
+      this.contactRateAtHealthCenter = contactRateAtHealthCenter;
+    }
   }
 }
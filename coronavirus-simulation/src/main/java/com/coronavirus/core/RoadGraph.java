@@ -0,0 +1,145 @@
+package com.coronavirus.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import com.coronavirus.model.Building;
+
+/**
+ * Road network in compressed sparse row form. The links of node {@code id}
+ * are the entries {@code getFirstLink(id)} to {@code getEndLink(id) - 1} of
+ * the target and weight arrays; every road is stored once from each of its
+ * ends, in the order the roads were added.
+ */
+public class RoadGraph implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final Node[] nodes;
+  private final int[] x;
+  private final int[] y;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+
+  public RoadGraph(Node[] nodes, int[] offsets, int[] targets, int[] weights) {
+    this.nodes = nodes;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.x = new int[nodes.length];
+    this.y = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      this.x[i] = nodes[i].getLocation().getLocationX();
+      this.y[i] = nodes[i].getLocation().getLocationY();
+    }
+  }
+
+  public int getNumNodes() {
+    return nodes.length;
+  }
+
+  public Node getNode(int id) {
+    return nodes[id];
+  }
+
+  public int getFirstLink(int id) {
+    return offsets[id];
+  }
+
+  public int getEndLink(int id) {
+    return offsets[id + 1];
+  }
+
+  public int getDegree(int id) {
+    return offsets[id + 1] - offsets[id];
+  }
+
+  public int getTarget(int link) {
+    return targets[link];
+  }
+
+  public int getWeight(int link) {
+    return weights[link];
+  }
+
+  // straight line distance between two nodes
+  public double distance(int from, int to) {
+    double dx = this.x[to] - this.x[from];
+    double dy = this.y[to] - this.y[from];
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
+  int[] getOffsets() {
+    return offsets;
+  }
+
+  int[] getTargets() {
+    return targets;
+  }
+
+  int[] getWeights() {
+    return weights;
+  }
+
+  /**
+   * Collects nodes and roads while the network is read, then lays them out.
+   */
+  public static class Builder {
+
+    private final ArrayList<Node> nodes = new ArrayList<Node>();
+    private int[] from = new int[1024];
+    private int[] to = new int[1024];
+    private int[] weight = new int[1024];
+    private int numRoads = 0;
+
+    public Node addNode(Building location) {
+      Node node = new Node(location, this.nodes.size());
+      this.nodes.add(node);
+      return node;
+    }
+
+    public void addRoad(Node a, Node b, int w) {
+      if (this.numRoads == this.from.length) {
+        this.from = grow(this.from);
+        this.to = grow(this.to);
+        this.weight = grow(this.weight);
+      }
+      this.from[this.numRoads] = a.getId();
+      this.to[this.numRoads] = b.getId();
+      this.weight[this.numRoads] = w;
+      this.numRoads++;
+    }
+
+    public RoadGraph build() {
+      int numNodes = this.nodes.size();
+      int[] offsets = new int[numNodes + 1];
+      for (int r = 0; r < this.numRoads; r++) {
+        offsets[this.from[r] + 1]++;
+        offsets[this.to[r] + 1]++;
+      }
+      for (int i = 0; i < numNodes; i++) {
+        offsets[i + 1] += offsets[i];
+      }
+      int[] targets = new int[2 * this.numRoads];
+      int[] weights = new int[2 * this.numRoads];
+      int[] next = new int[numNodes];
+      System.arraycopy(offsets, 0, next, 0, numNodes);
+      for (int r = 0; r < this.numRoads; r++) {
+        int a = this.from[r];
+        int b = this.to[r];
+        targets[next[a]] = b;
+        weights[next[a]++] = this.weight[r];
+        targets[next[b]] = a;
+        weights[next[b]++] = this.weight[r];
+      }
+      return new RoadGraph(this.nodes.toArray(new Node[numNodes]), offsets, targets, weights);
+    }
+
+    private static int[] grow(int[] array) {
+      int[] larger = new int[array.length * 2];
+      System.arraycopy(array, 0, larger, 0, array.length);
+      return larger;
+    }
+  }
+
+}
@@ -9,13 +9,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.coronavirus.core.algorithms.FacilityRoutes;
+import com.coronavirus.core.algorithms.DistanceTransform;
+import com.coronavirus.core.algorithms.NearestFacilityTable;
+import com.coronavirus.core.algorithms.Route;
+import com.coronavirus.core.disease.DiseaseModel;
+import com.coronavirus.core.disease.DiseaseStateMachine;
 import com.coronavirus.model.Building;
 import com.coronavirus.model.Facility;
 import com.coronavirus.model.Family;
 import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
 import com.coronavirus.model.enumeration.ActivityMapping;
 import com.coronavirus.model.enumeration.HealthStatus;
 import com.coronavirus.model.enumeration.Sex;
@@ -25,6 +33,7 @@ import com.vividsolutions.jts.geom.LineString;
 import com.vividsolutions.jts.geom.MultiLineString;
 
 import ec.util.MersenneTwisterFast;
+import sim.engine.Schedule;
 import sim.field.continuous.Continuous2D;
 import sim.field.geo.GeomGridField;
 import sim.field.geo.GeomGridField.GridDataType;
@@ -33,7 +42,6 @@ import sim.field.grid.DoubleGrid2D;
 import sim.field.grid.IntGrid2D;
 import sim.field.grid.ObjectGrid2D;
 import sim.field.grid.SparseGrid2D;
-import sim.field.network.Edge;
 import sim.io.geo.ShapeFileImporter;
 import sim.util.Bag;
 import sim.util.geo.MasonGeometry;
@@ -47,10 +55,119 @@ public class SimulationBuilder {
   private static final String FACILITY_ASCGRID = "data-dadaab/d_faci_a.txt";
   private static final String ELEVATION_ASCGRID = "data-dadaab/d_dem_n.txt";
   private static final String RAINS_FILE = "data-poa/clima-2012-2014.csv";
-  private static int GRID_WIDTH = 0;
-  private static int GRID_HEIGHT = 0;
+  // everything the world is built from, the snapshot is only valid for these
+  static final String[] INPUT_FILES = { BUILDINGS_SHAPEFILE, BUILDINGS_ASCGRID, ROADS_SHAPEFILE, ROADS_ASCGRID,
+      FACILITY_ASCGRID, ELEVATION_ASCGRID, RAINS_FILE };
+  private static final String WORLD_SNAPSHOT_FILE = "world.snapshot";
+  // the roads and the facilities the route trees are built from
+  static final String[] ROUTE_INPUT_FILES = { BUILDINGS_ASCGRID, ROADS_SHAPEFILE, FACILITY_ASCGRID };
+  private static final String FACILITY_ROUTES_FILE = "facility-routes.table";
+  // per builder, so that several simulations can be built at the same time
+  private int gridWidth = 0;
+  private int gridHeight = 0;
+  // road nodes and roads as they are read, laid out as the road graph afterwards
+  private RoadGraph.Builder roads = new RoadGraph.Builder();
 
   public void create(CoronaVirus coronaVirus, MersenneTwisterFast random) {
+    if (coronaVirus.getParams().getGlobal().isWorldSnapshot()) {
+      this.loadWorldSnapshot(coronaVirus);
+    } else {
+      this.readWorld(coronaVirus);
+    }
+    if (coronaVirus.getParams().getGlobal().isFacilityRoutes()) {
+      this.loadFacilityRoutes(coronaVirus);
+    }
+    coronaVirus.setNearestFacilities(new NearestFacilityTable(coronaVirus));
+
+    // add climate to the environment
+    this.defineInitialTemperature(coronaVirus);
+    this.defineInitialPrecipitation(coronaVirus);
+    // add resource to the environment
+    this.populateNormalFood(coronaVirus);
+    // add agents to the environment, or plan them in camps kept as compartments
+    if (coronaVirus.getParams().getGlobal().isHybridPopulation()) {
+      coronaVirus.setHybridPopulation(new HybridPopulation(coronaVirus));
+    }
+    this.populateHuman(coronaVirus);
+    this.defineFamilies(coronaVirus);
+
+    this.generateRandomHumansInfected(coronaVirus);
+    this.administerRandomVaccines(coronaVirus);
+  }
+
+  // use the snapshot of the world when it was built from the same input files
+  private void loadWorldSnapshot(CoronaVirus coronaVirus) {
+    File file = new File(WORLD_SNAPSHOT_FILE);
+    byte[] inputHash = null;
+    try {
+      inputHash = WorldSnapshot.hashFiles(INPUT_FILES);
+      if (WorldSnapshot.read(file, inputHash, coronaVirus, this)) {
+        return;
+      }
+    } catch (IOException ex) {
+      Logger.getLogger(SimulationBuilder.class.getName()).log(Level.WARNING, "Ignoring the world snapshot", ex);
+    }
+    this.readWorld(coronaVirus);
+    if (inputHash != null) {
+      try {
+        WorldSnapshot.write(file, inputHash, coronaVirus);
+      } catch (IOException ex) {
+        Logger.getLogger(SimulationBuilder.class.getName()).log(Level.WARNING, "Could not write the world snapshot",
+            ex);
+      }
+    }
+  }
+
+  // read the route trees from disk, building and saving them again when the roads changed
+  private void loadFacilityRoutes(CoronaVirus coronaVirus) {
+    int[] roots = facilityRoots(coronaVirus);
+    File file = new File(FACILITY_ROUTES_FILE);
+    byte[] inputHash = null;
+    try {
+      inputHash = WorldSnapshot.hashFiles(ROUTE_INPUT_FILES);
+      FacilityRoutes facilityRoutes = FacilityRoutes.read(file, inputHash);
+      if (facilityRoutes != null && Arrays.equals(facilityRoutes.getRoots(), roots)) {
+        coronaVirus.setFacilityRoutes(facilityRoutes);
+        return;
+      }
+    } catch (IOException ex) {
+      Logger.getLogger(SimulationBuilder.class.getName()).log(Level.WARNING, "Ignoring the facility routes", ex);
+    }
+    FacilityRoutes facilityRoutes = FacilityRoutes.build(coronaVirus.roadGraph, roots);
+    coronaVirus.setFacilityRoutes(facilityRoutes);
+    if (inputHash != null) {
+      try {
+        facilityRoutes.write(file, inputHash);
+      } catch (IOException ex) {
+        Logger.getLogger(SimulationBuilder.class.getName()).log(Level.WARNING, "Could not write the facility routes",
+            ex);
+      }
+    }
+  }
+
+  // distinct road nodes closest to the facilities, in ascending order
+  private static int[] facilityRoots(CoronaVirus coronaVirus) {
+    boolean[] root = new boolean[coronaVirus.roadGraph.getNumNodes()];
+    int numRoots = 0;
+    Bag facilities = coronaVirus.getAllFacilities();
+    for (int i = 0; i < facilities.numObjs; i++) {
+      Building location = (Building) facilities.objs[i];
+      Node node = (Node) coronaVirus.closestNodes.get(location.getLocationX(), location.getLocationY());
+      if (node != null && !root[node.getId()]) {
+        root[node.getId()] = true;
+        numRoots++;
+      }
+    }
+    int[] roots = new int[numRoots];
+    for (int id = 0, r = 0; id < root.length; id++) {
+      if (root[id]) {
+        roots[r++] = id;
+      }
+    }
+    return roots;
+  }
+
+  private void readWorld(CoronaVirus coronaVirus) {
     try {
       String line;
       // buffer reader - read ascii file
@@ -59,12 +176,10 @@ public class SimulationBuilder {
       line = camp.readLine(); // read line for width
       String[] tokens = line.split("\\s+");
       int width = Integer.parseInt(tokens[1]);
-      GRID_WIDTH = width;
       line = camp.readLine();
       tokens = line.split("\\s+");
       int height = Integer.parseInt(tokens[1]);
-      GRID_HEIGHT = height;
-      createGrids(width, height, coronaVirus);
+      this.createGrids(width, height, coronaVirus);
       // skip the next four lines as they contain irrelevant metadata
       for (int i = 0; i < 4; ++i) {
         line = camp.readLine();
@@ -79,8 +194,9 @@ public class SimulationBuilder {
           fieldUnit = new Building();
           if (camptype > 0) {
             fieldUnit.setFieldID(camptype);
-            if (camptype == 11 || camptype == 21 || camptype == 31) {
+            if (isFamilyHousing(camptype)) {
               coronaVirus.getFamilyHousing().add(fieldUnit);
+              fieldUnit.setActivityMapping(ActivityMapping.STAY_HOME);
             }
 
             if (camptype >= 10 && camptype <= 12) {
@@ -116,18 +232,10 @@ public class SimulationBuilder {
     } catch (IOException ex) {
       Logger.getLogger(SimulationBuilder.class.getName()).log(Level.SEVERE, null, ex);
     }
+  }
 
-    // add climate to the environment
-    this.defineInitialTemperature(coronaVirus);
-    this.defineInitialPrecipitation(coronaVirus);
-    // add resource to the environment
-    this.populateNormalFood(coronaVirus);
-    // add agents to the environment
-    this.populateHuman(coronaVirus);
-    this.defineFamilies(coronaVirus);
-
-    this.generateRandomHumansInfected(coronaVirus);
-    this.administerRandomVaccines(coronaVirus);
+  static boolean isFamilyHousing(int fieldID) {
+    return fieldID == 11 || fieldID == 21 || fieldID == 31;
   }
 
   private void readFacilityAscGridFile(CoronaVirus coronaVirus, String[] tokens, int height, int width) {
@@ -146,35 +254,22 @@ public class SimulationBuilder {
         for (int curr_col = 0; curr_col < width; ++curr_col) {
           int facilitytype = Integer.parseInt(tokens[curr_col]);
           if (facilitytype > 0 && facilitytype < 11) {
-            Facility facility = new Facility();
             Building facilityField = (Building) coronaVirus.allCamps.get(curr_col, curr_row);
-            facility.setLocation(facilityField);
-            facilityField.setFacility(facility);
-            coronaVirus.getAllFacilities().add(facilityField);
-
             if (facilitytype == 1) {
-              facility.setFacilityID(2);
-              coronaVirus.getWorks().add(facilityField);
+              addFacility(coronaVirus, facilityField, 2);
             } else if (facilitytype == 2 || facilitytype == 3) {
-              facility.setFacilityID(6);
-              coronaVirus.getHealthCenters().add(facilityField);
+              addFacility(coronaVirus, facilityField, 6);
             } else if (facilitytype == 4) {
-              facility.setFacilityID(5);
-              coronaVirus.getFoodCenter().add(facilityField);
+              addFacility(coronaVirus, facilityField, 5);
             } else if (facilitytype > 5 && facilitytype <= 8) {
-              facility.setFacilityID(1);
-              coronaVirus.getSchooles().add(facilityField);
+              addFacility(coronaVirus, facilityField, 1);
             } else if (facilitytype == 9) {
-              facility.setFacilityID(4);
-              coronaVirus.getMarket().add(facilityField);
+              addFacility(coronaVirus, facilityField, 4);
             } else if (facilitytype == 10) {
-              facility.setFacilityID(3);
-              coronaVirus.getMosques().add(facilityField);
+              addFacility(coronaVirus, facilityField, 3);
             } else {
-              facility.setFacilityID(8);
-              coronaVirus.getOther().add(facilityField);
+              addFacility(coronaVirus, facilityField, 8);
             }
-            coronaVirus.facilityGrid.setObjectLocation(facility, curr_col, curr_row);
           }
         }
       }
@@ -183,6 +278,45 @@ public class SimulationBuilder {
     }
   }
 
+  static void addFacility(CoronaVirus coronaVirus, Building facilityField, int facilityID) {
+    Facility facility = new Facility();
+    facility.setLocation(facilityField);
+    facility.setFacilityID(facilityID);
+    facilityField.setFacility(facility);
+    coronaVirus.getAllFacilities().add(facilityField);
+    switch (facilityID) {
+    case 1:
+      coronaVirus.getSchooles().add(facilityField);
+      facilityField.setActivityMapping(ActivityMapping.SCHOOL);
+      break;
+    case 2:
+      coronaVirus.getWorks().add(facilityField);
+      facilityField.setActivityMapping(ActivityMapping.WORK);
+      break;
+    case 3:
+      coronaVirus.getMosques().add(facilityField);
+      facilityField.setActivityMapping(ActivityMapping.RELIGION_ACTIVITY);
+      break;
+    case 4:
+      coronaVirus.getMarket().add(facilityField);
+      facilityField.setActivityMapping(ActivityMapping.MARKET);
+      break;
+    case 5:
+      // crowds at the food distribution mix like those at the market
+      coronaVirus.getFoodCenter().add(facilityField);
+      facilityField.setActivityMapping(ActivityMapping.MARKET);
+      break;
+    case 6:
+      coronaVirus.getHealthCenters().add(facilityField);
+      facilityField.setActivityMapping(ActivityMapping.HEALTH_CENTER);
+      break;
+    default:
+      coronaVirus.getOther().add(facilityField);
+      break;
+    }
+    coronaVirus.facilityGrid.setObjectLocation(facility, facilityField.getLocationX(), facilityField.getLocationY());
+  }
+
   private void readRoadsAscGridFile(CoronaVirus coronaVirus, String[] tokens, int height, int width) {
     try {
       String line;
@@ -248,6 +382,7 @@ public class SimulationBuilder {
       ShapeFileImporter.read(raodLinkUL, coronaVirus.roadLinks, masked);
       // construct a network of
       extractFromRoadLinks(coronaVirus.roadLinks, coronaVirus);
+      coronaVirus.roadGraph = this.roads.build();
       // set up the locations and nearest node capability
       coronaVirus.closestNodes = setupNearestNodes(coronaVirus);
     } catch (IOException ex) {
@@ -258,6 +393,9 @@ public class SimulationBuilder {
   private void defineFamilies(CoronaVirus coronaVirus) {
     int max = coronaVirus.getParams().getGlobal().getMaximumNumberRelativeFamily();
     int[] numberOfFamilies = new int[coronaVirus.getAllFamilies().numObjs];
+    for (int k = 0; k < numberOfFamilies.length; k++) {
+      numberOfFamilies[k] = k;
+    }
 
     for (int i = 0; i < coronaVirus.getAllFamilies().numObjs; i++) {
       Family f = (Family) coronaVirus.getAllFamilies().objs[i];
@@ -267,14 +405,17 @@ public class SimulationBuilder {
       } else {
         tot = coronaVirus.getAllFamilies().numObjs;
       }
+      if (tot < 2) {
+        continue;
+      }
 
       int numOfRel = 1 + coronaVirus.random.nextInt(tot - 1);
-      // swap the array index
-      for (int kk = 0; kk < numberOfFamilies.length; kk++) {
-        int idx = coronaVirus.random.nextInt(numberOfFamilies.length);
+      // draw the relatives among all the families, without drawing one twice
+      for (int jj = 0; jj < numOfRel; jj++) {
+        int idx = jj + coronaVirus.random.nextInt(numberOfFamilies.length - jj);
         int temp = numberOfFamilies[idx];
-        numberOfFamilies[idx] = numberOfFamilies[i];
-        numberOfFamilies[i] = temp;
+        numberOfFamilies[idx] = numberOfFamilies[jj];
+        numberOfFamilies[jj] = temp;
       }
 
       for (int jj = 0; jj < numOfRel; jj++) {
@@ -333,8 +474,18 @@ public class SimulationBuilder {
   private void administerRandomVaccines(CoronaVirus coronaVirus) {
     int amount = coronaVirus.getParams().getGlobal().getQuantityOfVaccinesApplied();
     int index = 0;
+    HybridPopulation hybrid = coronaVirus.getHybridPopulation();
     while (amount > 0) {
       index = coronaVirus.random.nextInt(coronaVirus.getParams().getGlobal().getInitialHumansNumber());
+      if (hybrid != null) {
+        // the planned humans come after the agents, their camps stay aggregated
+        index = index % (coronaVirus.getPopulation().numHumans + hybrid.size());
+        if (index >= coronaVirus.getPopulation().numHumans) {
+          hybrid.vaccinate(index - coronaVirus.getPopulation().numHumans);
+          amount--;
+          continue;
+        }
+      }
       Human human = (Human) coronaVirus.allHumans.getAllObjects().get(index);
       if (HealthStatus.SUSCEPTIBLE.equals(human.getCurrentHealthStatus())) {
         human.applyVaccine();
@@ -346,18 +497,32 @@ public class SimulationBuilder {
   private void generateRandomHumansInfected(CoronaVirus coronaVirus) {
     int amount = coronaVirus.getParams().getGlobal().getInitialHumansNumberInfected();
     int index = 0;
+    HybridPopulation hybrid = coronaVirus.getHybridPopulation();
     while (amount > 0) {
       index = coronaVirus.random.nextInt(coronaVirus.getParams().getGlobal().getInitialHumansNumber());
-      Human human = (Human) coronaVirus.allHumans.getAllObjects().get(index);
+      Human human;
+      if (hybrid != null) {
+        // the camp of an infected planned human is expanded first
+        index = index % (coronaVirus.getPopulation().numHumans + hybrid.size());
+        if (index >= coronaVirus.getPopulation().numHumans) {
+          human = hybrid.expandHuman(index - coronaVirus.getPopulation().numHumans);
+        } else {
+          human = coronaVirus.getPopulation().humans[index];
+        }
+      } else {
+        human = (Human) coronaVirus.allHumans.getAllObjects().get(index);
+      }
       if (HealthStatus.SUSCEPTIBLE.equals(human.getCurrentHealthStatus())) {
         human.infected();
-        human.setIncubationPeriod(0); // next step is infected
+        human.setDiseaseExitDay(0); // infected from the first day
         amount--;
       }
     }
   }
 
-  private static void createGrids(int width, int height, CoronaVirus coronaVirus) {
+  void createGrids(int width, int height, CoronaVirus coronaVirus) {
+    this.gridWidth = width;
+    this.gridHeight = height;
     coronaVirus.allCamps = new ObjectGrid2D(width, height);
     coronaVirus.rainfallGrid = new DoubleGrid2D(width, height, 0);
     coronaVirus.allHumans = new Continuous2D(0.1, width, height);
@@ -368,22 +533,52 @@ public class SimulationBuilder {
     coronaVirus.roadLinks = new GeomVectorField(width, height);
     coronaVirus.campShape = new GeomVectorField(width, height);
     coronaVirus.allCampGeoGrid = new GeomGridField();
+    coronaVirus.setPopulation(new Population(coronaVirus.allCamps));
+    // the course of the disease as given by the parameters, unless another model was set
+    DiseaseModel diseaseModel = coronaVirus.getDiseaseModel();
+    if (diseaseModel == null) {
+      diseaseModel = DiseaseStateMachine.fromParameters(coronaVirus.getParams().getGlobal());
+    }
+    coronaVirus.getPopulation().setDiseaseModel(diseaseModel);
   }
 
   // add households
   private void addAllHumans(int age, Sex sex, Family hh, CoronaVirus coronaVirus) {
-    Human human = new Human(age, sex, hh, hh.getLocation(), hh.getLocation(), coronaVirus.random,
-        coronaVirus.allHumans);
+    HybridPopulation hybrid = coronaVirus.getHybridPopulation();
+    if (hybrid != null) {
+      hybrid.addMember(age, sex);
+    } else {
+      addHuman(age, sex, hh, coronaVirus);
+    }
+  }
+
+  // also used when an aggregated camp is expanded during the run
+  static Human addHuman(int age, Sex sex, Family hh, CoronaVirus coronaVirus) {
+    Human human = new Human(age, sex, hh, hh.getLocation(), hh.getLocation(), coronaVirus.getRandomStreams(),
+        coronaVirus.allHumans, coronaVirus.getPopulation());
     hh.addMembers(human);
     hh.getLocation().addRefugee(human);
     human.setCurrentHealthStatus(HealthStatus.SUSCEPTIBLE);
     human.setCurrentActivity(ActivityMapping.STAY_HOME);
-    human.setStudent(this.isStudent(age));
-    human.setWorker(this.isWorker(age, sex));
-    human.setStoppable(coronaVirus.schedule.scheduleRepeating(human, Human.ORDERING, 1.0));
+    human.setStudent(isStudent(age));
+    human.setWorker(isWorker(age, sex));
+    if (coronaVirus.getHybridPopulation() != null) {
+      coronaVirus.getHybridPopulation().addAgent(human);
+    }
+    if (coronaVirus.isSteppedInBatch()) {
+      // stepped together with everyone else by the population stepper
+      return human;
+    } else if (coronaVirus.isEventDriven()) {
+      // the human schedules its own next wake-up from here on, from the next step once the run started
+      double start = Math.max(Schedule.EPOCH, coronaVirus.schedule.getTime() + 1.0);
+      coronaVirus.schedule.scheduleOnce(start, Human.ORDERING, human);
+    } else {
+      human.setStoppable(coronaVirus.schedule.scheduleRepeating(human, Human.ORDERING, 1.0));
+    }
+    return human;
   }
 
-  private boolean isStudent(int age) {
+  static boolean isStudent(int age) {
     if (age < 20) {
       return true;
     } else {
@@ -391,7 +586,7 @@ public class SimulationBuilder {
     }
   }
 
-  private boolean isWorker(int age, Sex sex) {
+  static boolean isWorker(int age, Sex sex) {
     if (Sex.F.equals(sex) && (age >= 20 && age <= 60)) {
       return true;
     } else if (Sex.M.equals(sex) && (age >= 20 && age <= 65)) {
@@ -479,9 +674,14 @@ public class SimulationBuilder {
       counter = counter + tot;
       if (tot != 0 && counter <= totalHumans) {
         Building fieldUnit = nextAvailCamp(coronaVirus);
-        Family hh = new Family(fieldUnit);
-        coronaVirus.getAllFamilies().add(hh);
-        fieldUnit.addRefugeeHH(hh);
+        Family hh = null;
+        if (coronaVirus.getHybridPopulation() != null) {
+          // the family moves in when its camp is expanded
+          coronaVirus.getHybridPopulation().addFamily(fieldUnit);
+        } else {
+          hh = new Family(fieldUnit);
+          coronaVirus.addFamily(hh);
+        }
 
         int random = coronaVirus.random.nextInt(101);
         int age = 0;
@@ -535,11 +735,11 @@ public class SimulationBuilder {
   }
 
   /// raod network methods from haiti project
-  static void extractFromRoadLinks(GeomVectorField roadLinks, CoronaVirus coronaVirus) {
+  void extractFromRoadLinks(GeomVectorField roadLinks, CoronaVirus coronaVirus) {
     Bag geoms = roadLinks.getGeometries();
     Envelope e = roadLinks.getMBR();
     double xmin = e.getMinX(), ymin = e.getMinY(), xmax = e.getMaxX(), ymax = e.getMaxY();
-    int xcols = GRID_WIDTH - 1, ycols = GRID_HEIGHT - 1;
+    int xcols = this.gridWidth - 1, ycols = this.gridHeight - 1;
 
     // extract each edge
     for (Object o : geoms) {
@@ -574,7 +774,7 @@ public class SimulationBuilder {
    * @param ymax
    *          - maximum y value in shapefile
    */
-  static void readLineString(LineString geometry, int xcols, int ycols, double xmin, double ymin, double xmax,
+  void readLineString(LineString geometry, int xcols, int ycols, double xmin, double ymin, double xmax,
       double ymax, CoronaVirus coronaVirus) {
 
     CoordinateSequence cs = geometry.getCoordinateSequence();
@@ -594,9 +794,9 @@ public class SimulationBuilder {
                                                                                  // Y
                                                                                  // VALUE
 
-      if (xint >= GRID_WIDTH) {
+      if (xint >= this.gridWidth) {
         continue;
-      } else if (yint >= GRID_HEIGHT) {
+      } else if (yint >= this.gridHeight) {
         continue;
       }
 
@@ -604,7 +804,7 @@ public class SimulationBuilder {
       Bag ns = coronaVirus.nodes.getObjectsAtLocation(xint, yint);
       Node n;
       if (ns == null) {
-        n = new Node(new Building(xint, yint));
+        n = this.roads.addNode(new Building(xint, yint));
         coronaVirus.nodes.setObjectLocation(n, xint, yint);
       } else {
         n = (Node) ns.get(0);
@@ -629,87 +829,45 @@ public class SimulationBuilder {
       // distance
 
       // create the new link and save it
-      Edge e = new Edge(oldNode, n, weight);
-      coronaVirus.roadNetwork.addEdge(e);
-      oldNode.getLinks().add(e);
-      n.getLinks().add(e);
+      this.roads.addRoad(oldNode, n, weight);
 
       oldNode = n; // save this node for reference in the next link
     }
   }
 
   /**
-   * Used to find the nearest node for each space
-   * 
+   * Calculate the nodes nearest to each location and store the information.
+   * Distances are counted in steps between neighbouring cells, and a cell at
+   * the same distance from several nodes goes to the node with the lowest id.
    */
-  static class Crawler {
-
-    Node node;
-    Building location;
-
-    public Crawler(Node n, Building l) {
-      node = n;
-      location = l;
+  ObjectGrid2D setupNearestNodes(CoronaVirus coronaVirus) {
+
+    ObjectGrid2D closestNodes = new ObjectGrid2D(this.gridWidth, this.gridHeight);
+    int[] labels = new int[this.gridWidth * this.gridHeight];
+    Arrays.fill(labels, -1);
+
+    // every node on a road, the lowest id first when they share a cell
+    RoadGraph roadGraph = coronaVirus.roadGraph;
+    for (int id = 0; id < roadGraph.getNumNodes(); id++) {
+      Building location = roadGraph.getNode(id).getLocation();
+      int cell = Route.cellOf(location.getLocationX(), location.getLocationY(), this.gridWidth);
+      if (roadGraph.getDegree(id) > 0 && labels[cell] < 0) {
+        labels[cell] = id;
+      }
     }
-  }
 
-  /**
-   * Calculate the nodes nearest to each location and store the information
-   * 
-   * @param closestNodes
-   *          - the field to populate
-   */
-  static ObjectGrid2D setupNearestNodes(CoronaVirus coronaVirus) {
-
-    ObjectGrid2D closestNodes = new ObjectGrid2D(GRID_WIDTH, GRID_HEIGHT);
-    ArrayList<Crawler> crawlers = new ArrayList<Crawler>();
-
-    for (Object o : coronaVirus.roadNetwork.allNodes) {
-      Node n = (Node) o;
-      Crawler c = new Crawler(n, n.getLocation());
-      crawlers.add(c);
+    int threads = coronaVirus.getParams().getGlobal().getNumberOfThreads();
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
     }
-
-    // while there is unexplored space, continue!
-    while (crawlers.size() > 0) {
-      ArrayList<Crawler> nextGeneration = new ArrayList<Crawler>();
-
-      // randomize the order in which cralwers are considered
-      int size = crawlers.size();
-
-      for (int i = 0; i < size; i++) {
-
-        // randomly pick a remaining crawler
-        int index = coronaVirus.random.nextInt(crawlers.size());
-        Crawler c = crawlers.remove(index);
-
-        // check if the location has already been claimed
-        Node n = (Node) closestNodes.get(c.location.getLocationX(), c.location.getLocationY());
-
-        if (n == null) { // found something new! Mark it and reproduce
-
-          // set it
-          closestNodes.set(c.location.getLocationX(), c.location.getLocationY(), c.node);
-
-          // reproduce
-          Bag neighbors = new Bag();
-
-          coronaVirus.allCamps.getNeighborsHamiltonianDistance(c.location.getLocationX(), c.location.getLocationY(), 1,
-              false, neighbors, null, null);
-
-          for (Object o : neighbors) {
-            Building l = (Building) o;
-            // Location l = (Location) o;
-            if (l == c.location) {
-              continue;
-            }
-            Crawler newc = new Crawler(c.node, l);
-            nextGeneration.add(newc);
-          }
+    DistanceTransform.transform(this.gridWidth, this.gridHeight, labels, threads);
+    for (int y = 0; y < this.gridHeight; y++) {
+      for (int x = 0; x < this.gridWidth; x++) {
+        int id = labels[Route.cellOf(x, y, this.gridWidth)];
+        if (id >= 0) {
+          closestNodes.field[x][y] = roadGraph.getNode(id);
         }
-        // otherwise just die
       }
-      crawlers = nextGeneration;
     }
     return closestNodes;
   }
@@ -0,0 +1,223 @@
+package com.coronavirus.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Climate;
+import com.coronavirus.model.Facility;
+import com.coronavirus.model.enumeration.ActivityMapping;
+
+/**
+ * Binary snapshot of the world as built from the input files: the cells of the
+ * camp grid with their facilities, roads and elevation, the road graph, the
+ * closest road node of every cell and the climate series. It is written once
+ * and memory-mapped by later runs, and carries a hash of the input files so
+ * that a snapshot of other inputs is never used. The map layers drawn by the
+ * GUI are not part of it.
+ */
+public class WorldSnapshot {
+
+  private static final int MAGIC = 0x57524C44; // "WRLD"
+  private static final int VERSION = 3;
+  private static final int NO_NODE = -1;
+  private static final String CHARSET = "UTF-8";
+
+  // SHA-1 over the names and contents of the files, in the given order
+  public static byte[] hashFiles(String[] fileNames) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IOException("SHA-1 is not available: " + ex.getMessage());
+    }
+    byte[] buffer = new byte[64 * 1024];
+    for (String fileName : fileNames) {
+      digest.update(fileName.getBytes(CHARSET));
+      InputStream input = new FileInputStream(fileName);
+      try {
+        int read;
+        while ((read = input.read(buffer)) > 0) {
+          digest.update(buffer, 0, read);
+        }
+      } finally {
+        input.close();
+      }
+    }
+    return digest.digest();
+  }
+
+  // written to a temporary file first, so that a concurrent reader never sees half a snapshot
+  public static void write(File file, byte[] inputHash, CoronaVirus coronaVirus) throws IOException {
+    File temporary = File.createTempFile("world", ".tmp", file.getAbsoluteFile().getParentFile());
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(inputHash.length);
+      out.write(inputHash);
+
+      int width = coronaVirus.allCamps.getWidth();
+      int height = coronaVirus.allCamps.getHeight();
+      out.writeInt(width);
+      out.writeInt(height);
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          Building building = (Building) coronaVirus.allCamps.field[x][y];
+          Facility facility = building.getFacility();
+          out.writeInt(building.getFieldID());
+          out.writeInt(building.getCampID());
+          out.writeDouble(building.getElevation());
+          out.writeInt(facility == null ? 0 : facility.getFacilityID());
+          out.writeInt(coronaVirus.roadGrid.get(x, y));
+        }
+      }
+
+      RoadGraph roadGraph = coronaVirus.roadGraph;
+      out.writeInt(roadGraph.getNumNodes());
+      for (int i = 0; i < roadGraph.getNumNodes(); i++) {
+        out.writeInt(roadGraph.getNode(i).getLocation().getLocationX());
+        out.writeInt(roadGraph.getNode(i).getLocation().getLocationY());
+      }
+      writeInts(out, roadGraph.getOffsets());
+      writeInts(out, roadGraph.getTargets());
+      writeInts(out, roadGraph.getWeights());
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          Node node = (Node) coronaVirus.closestNodes.get(x, y);
+          out.writeInt(node == null ? NO_NODE : node.getId());
+        }
+      }
+
+      Climate climate = coronaVirus.getClimate();
+      out.writeInt(climate.getDate().size());
+      for (int i = 0; i < climate.getDate().size(); i++) {
+        byte[] date = climate.getDate().get(i).getBytes(CHARSET);
+        out.writeInt(date.length);
+        out.write(date);
+        out.writeDouble(climate.getPrecipitation().get(i).doubleValue());
+        out.writeDouble(climate.getTemperature().get(i).doubleValue());
+      }
+    } finally {
+      out.close();
+    }
+    if (!temporary.renameTo(file)) {
+      file.delete();
+      if (!temporary.renameTo(file)) {
+        temporary.delete();
+        throw new IOException("Could not move the world snapshot to " + file);
+      }
+    }
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+    out.writeInt(values.length);
+    for (int i = 0; i < values.length; i++) {
+      out.writeInt(values[i]);
+    }
+  }
+
+  private static int[] readInts(ByteBuffer in) {
+    int[] values = new int[in.getInt()];
+    in.asIntBuffer().get(values);
+    in.position(in.position() + 4 * values.length);
+    return values;
+  }
+
+  // false when there is no snapshot or it was built from other input files
+  public static boolean read(File file, byte[] inputHash, CoronaVirus coronaVirus, SimulationBuilder builder)
+      throws IOException {
+    if (!file.isFile()) {
+      return false;
+    }
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+        return false;
+      }
+      byte[] hash = new byte[in.getInt()];
+      in.get(hash);
+      if (!Arrays.equals(hash, inputHash)) {
+        return false;
+      }
+
+      int width = in.getInt();
+      int height = in.getInt();
+      builder.createGrids(width, height, coronaVirus);
+      coronaVirus.getFamilyHousing().clear();
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          Building building = new Building();
+          int fieldID = in.getInt();
+          building.setFieldID(fieldID);
+          if (SimulationBuilder.isFamilyHousing(fieldID)) {
+            coronaVirus.getFamilyHousing().add(building);
+            building.setActivityMapping(ActivityMapping.STAY_HOME);
+          }
+          building.setCampID(in.getInt());
+          building.setLocationX(x);
+          building.setLocationY(y);
+          building.setWater(0);
+          double elevation = in.getDouble();
+          if (elevation > 0) {
+            building.setElevation(elevation);
+          }
+          coronaVirus.allCamps.field[x][y] = building;
+          int facilityID = in.getInt();
+          if (facilityID > 0) {
+            SimulationBuilder.addFacility(coronaVirus, building, facilityID);
+          }
+          int roadID = in.getInt();
+          if (roadID >= 0) {
+            coronaVirus.roadGrid.set(x, y, roadID);
+          }
+        }
+      }
+
+      Node[] nodes = new Node[in.getInt()];
+      for (int i = 0; i < nodes.length; i++) {
+        int x = in.getInt();
+        int y = in.getInt();
+        nodes[i] = new Node(new Building(x, y), i);
+        coronaVirus.nodes.setObjectLocation(nodes[i], x, y);
+      }
+      coronaVirus.roadGraph = new RoadGraph(nodes, readInts(in), readInts(in), readInts(in));
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          int node = in.getInt();
+          if (node != NO_NODE) {
+            coronaVirus.closestNodes.set(x, y, nodes[node]);
+          }
+        }
+      }
+
+      Climate climate = coronaVirus.getClimate();
+      int days = in.getInt();
+      for (int i = 0; i < days; i++) {
+        byte[] date = new byte[in.getInt()];
+        in.get(date);
+        climate.addDate(new String(date, CHARSET));
+        climate.addPrecipitation(Double.valueOf(in.getDouble()));
+        climate.addTemperature(Double.valueOf(in.getDouble()));
+      }
+      return true;
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+}
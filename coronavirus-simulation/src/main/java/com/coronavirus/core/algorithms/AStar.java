@@ -1,17 +1,23 @@
 package com.coronavirus.core.algorithms;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.coronavirus.core.Node;
 import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.RoadGraph;
 import com.coronavirus.model.Building;
 
-import sim.field.network.Edge;
-
 @SuppressWarnings("restriction")
 public class AStar {
 
+  // each thread searches in its own workspace, reused from one search to the next
+  private static final ThreadLocal<Workspace> WORKSPACE = new ThreadLocal<Workspace>() {
+    protected Workspace initialValue() {
+      return new Workspace();
+    }
+  };
+
   /**
    * Assumes that both the start and end location are NODES as opposed to
    * LOCATIONS
@@ -24,68 +30,53 @@ public class AStar {
   static public ArrayList<Building> astarPath(CoronaVirus world, Node start, Node goal) {
     if (start == null || goal == null) {
       System.out.println("Error: invalid node provided to AStar");
+      return null;
     }
-    HashMap<Node, AStarNodeWrapper> foundNodes = new HashMap<Node, AStarNodeWrapper>();
-    AStarNodeWrapper startNode = new AStarNodeWrapper(start);
-    AStarNodeWrapper goalNode = new AStarNodeWrapper(goal);
-    foundNodes.put(start, startNode);
-    foundNodes.put(goal, goalNode);
-
-    startNode.gx = 0;
-    startNode.hx = heuristic(start, goal);
-    startNode.fx = heuristic(start, goal);
+    RoadGraph graph = world.roadGraph;
+    int[] nodes = astarNodes(graph, start.getId(), goal.getId());
+    if (nodes == null) {
+      return null;
+    }
+    ArrayList<Building> result = new ArrayList<Building>(nodes.length);
+    for (int i = 0; i < nodes.length; i++) {
+      result.add(graph.getNode(nodes[i]).getLocation());
+    }
+    return result;
+  }
 
-    // A* containers: nodes to be investigated, nodes that have been investigated
-    ArrayList<AStarNodeWrapper> closedSet = new ArrayList<AStarNodeWrapper>(),
-        openSet = new ArrayList<AStarNodeWrapper>();
-    openSet.add(startNode);
+  /**
+   * Same search over node ids
+   * 
+   * @return the ids of the nodes after the start up to the goal, null when the
+   *         goal cannot be reached
+   */
+  static int[] astarNodes(RoadGraph graph, int startId, int goalId) {
+    Workspace w = WORKSPACE.get();
+    w.begin(graph.getNumNodes());
+    w.open(startId, -1, 0, graph.distance(startId, goalId));
 
-    while (openSet.size() > 0) { // while there are reachable nodes to investigate
+    while (w.heapSize > 0) { // while there are reachable nodes to investigate
 
-      AStarNodeWrapper x = findMin(openSet); // find the shortest path so far
-      if (x.node == goal) { // we have found the shortest possible path to the goal!
+      int x = w.pop(); // the shortest path so far
+      if (x == goalId) { // we have found the shortest possible path to the goal!
         // Reconstruct the path and send it back.
-        return reconstructPath(goalNode);
+        return reconstructPath(w, x);
       }
-      openSet.remove(x); // maintain the lists
-      closedSet.add(x);
+      w.closed[x] = w.generation;
 
       // check all the neighbors of this location
-      for (Edge l : x.node.getLinks()) {
-
-        Node n = (Node) l.from();
-        if (n == x.node)
-          n = (Node) l.to();
-
-        // get the A* meta information about this Node
-        AStarNodeWrapper nextNode;
-        if (foundNodes.containsKey(n))
-          nextNode = foundNodes.get(n);
-        else {
-          nextNode = new AStarNodeWrapper(n);
-          foundNodes.put(n, nextNode);
-        }
-
-        if (closedSet.contains(nextNode)) // it has already been considered
+      int end = graph.getEndLink(x);
+      for (int link = graph.getFirstLink(x); link < end; link++) {
+        int next = graph.getTarget(link);
+        if (w.closed[next] == w.generation) // it has already been considered
           continue;
 
         // otherwise evaluate the cost of this node/edge combo
-        double tentativeCost = x.gx + (Integer) l.info;
-        boolean better = false;
-
-        if (!openSet.contains(nextNode)) {
-          openSet.add(nextNode);
-          nextNode.hx = heuristic(n, goal);
-          better = true;
-        } else if (tentativeCost < nextNode.gx) {
-          better = true;
-        }
-
-        // store A* information about this promising candidate node
-        if (better) {
-          nextNode.cameFrom = x;
-          nextNode.gx = tentativeCost;
-          nextNode.fx = nextNode.gx + nextNode.hx;
+        double tentativeCost = w.g[x] + graph.getWeight(link);
+        if (w.seen[next] != w.generation) {
+          w.open(next, x, tentativeCost, tentativeCost + graph.distance(next, goalId));
+        } else if (tentativeCost < w.g[next]) {
+          w.improve(next, x, tentativeCost, tentativeCost + graph.distance(next, goalId));
         }
       }
     }
@@ -98,66 +89,134 @@ public class AStar {
    * it.
    * 
    * @param n the end point of the path
-   * @return an ArrayList of nodes that lead from the given Node to the Node from
-   *         which the search began
+   * @return the ids of the nodes that lead from the node after the one from
+   *         which the search began to the given node
    */
-  static ArrayList<Building> reconstructPath(AStarNodeWrapper n) {
-    ArrayList<Building> result = new ArrayList<Building>();
-    AStarNodeWrapper x = n;
-    while (x.cameFrom != null) {
-      result.add(0, x.node.getLocation()); // add this edge to the front of the list
-      x = x.cameFrom;
+  static int[] reconstructPath(Workspace w, int n) {
+    int length = 0;
+    for (int x = n; w.cameFrom[x] != -1; x = w.cameFrom[x]) {
+      length++;
+    }
+    int[] result = new int[length];
+    for (int x = n; w.cameFrom[x] != -1; x = w.cameFrom[x]) {
+      result[--length] = x;
     }
-
     return result;
   }
 
   /**
-   * Measure of the estimated distance between two Nodes.
-   * 
-   * @return notional "distance" between the given nodes.
+   * A* meta information about the Nodes, indexed by node id, and the open set
+   * as a binary heap ordered by fx. Entries are only valid when stamped with
+   * the generation of the current search, so nothing has to be cleared between
+   * searches.
    */
-  static double heuristic(Node x, Node y) {
-    return x.getLocation().distanceTo(y.getLocation());
-  }
+  static class Workspace {
+
+    int generation;
+    int[] seen = new int[0];
+    int[] closed = new int[0];
+    // the node from which each node was most profitably linked, -1 for the start
+    int[] cameFrom = new int[0];
+    double[] g = new double[0];
+    double[] f = new double[0];
+    int[] heap = new int[0];
+    int[] heapIndex = new int[0];
+    int heapSize;
+
+    void begin(int numNodes) {
+      if (numNodes > this.seen.length) {
+        this.grow(numNodes);
+      }
+      this.heapSize = 0;
+      if (++this.generation == Integer.MAX_VALUE) {
+        Arrays.fill(this.seen, 0);
+        Arrays.fill(this.closed, 0);
+        this.generation = 1;
+      }
+    }
 
-  /**
-   * Considers the list of Nodes open for consideration and returns the node with
-   * minimum fx value
-   * 
-   * @param set list of open Nodes
-   * @return
-   */
-  static AStarNodeWrapper findMin(ArrayList<AStarNodeWrapper> set) {
-    double min = 100000;
-    AStarNodeWrapper minNode = null;
-    for (AStarNodeWrapper n : set) {
-      if (n.fx < min) {
-        min = n.fx;
-        minNode = n;
+    void open(int id, int from, double gx, double fx) {
+      this.seen[id] = this.generation;
+      this.cameFrom[id] = from;
+      this.g[id] = gx;
+      this.f[id] = fx;
+      this.heap[this.heapSize] = id;
+      this.heapIndex[id] = this.heapSize;
+      this.siftUp(this.heapSize++);
+    }
+
+    void improve(int id, int from, double gx, double fx) {
+      this.cameFrom[id] = from;
+      this.g[id] = gx;
+      this.f[id] = fx;
+      this.siftUp(this.heapIndex[id]);
+    }
+
+    int pop() {
+      int top = this.heap[0];
+      this.heapSize--;
+      if (this.heapSize > 0) {
+        this.heap[0] = this.heap[this.heapSize];
+        this.heapIndex[this.heap[0]] = 0;
+        this.siftDown(0);
       }
+      return top;
     }
-    return minNode;
-  }
 
-  /**
-   * A wrapper to contain the A* meta information about the Nodes
-   *
-   */
-  static class AStarNodeWrapper {
-
-    // the underlying Node associated with the metainformation
-    Node node;
-    // the Node from which this Node was most profitably linked
-    AStarNodeWrapper cameFrom;
-    double gx, hx, fx;
-
-    public AStarNodeWrapper(Node n) {
-      node = n;
-      gx = 0;
-      hx = 0;
-      fx = 0;
-      cameFrom = null;
+    private void siftUp(int i) {
+      int id = this.heap[i];
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (this.f[this.heap[parent]] <= this.f[id]) {
+          break;
+        }
+        this.heap[i] = this.heap[parent];
+        this.heapIndex[this.heap[i]] = i;
+        i = parent;
+      }
+      this.heap[i] = id;
+      this.heapIndex[id] = i;
+    }
+
+    private void siftDown(int i) {
+      int id = this.heap[i];
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= this.heapSize) {
+          break;
+        }
+        if (child + 1 < this.heapSize && this.f[this.heap[child + 1]] < this.f[this.heap[child]]) {
+          child++;
+        }
+        if (this.f[id] <= this.f[this.heap[child]]) {
+          break;
+        }
+        this.heap[i] = this.heap[child];
+        this.heapIndex[this.heap[i]] = i;
+        i = child;
+      }
+      this.heap[i] = id;
+      this.heapIndex[id] = i;
+    }
+
+    // only ever grows, to the number of road nodes
+    private void grow(int capacity) {
+      this.seen = copy(this.seen, new int[capacity]);
+      this.closed = copy(this.closed, new int[capacity]);
+      this.cameFrom = copy(this.cameFrom, new int[capacity]);
+      this.heap = copy(this.heap, new int[capacity]);
+      this.heapIndex = copy(this.heapIndex, new int[capacity]);
+      double[] g = new double[capacity];
+      System.arraycopy(this.g, 0, g, 0, this.g.length);
+      this.g = g;
+      double[] f = new double[capacity];
+      System.arraycopy(this.f, 0, f, 0, this.f.length);
+      this.f = f;
+    }
+
+    private static int[] copy(int[] from, int[] to) {
+      System.arraycopy(from, 0, to, 0, from.length);
+      return to;
     }
   }
-}
\ No newline at end of file
+}
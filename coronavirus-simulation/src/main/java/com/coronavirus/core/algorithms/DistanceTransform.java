@@ -0,0 +1,97 @@
+package com.coronavirus.core.algorithms;
+
+/**
+ * Exact city-block (L1) distance transform of a grid, carrying along the label
+ * of the nearest seed. It is separable: one forward and one backward scan of
+ * every row, then of every column. Seeds at the same distance are settled in
+ * favour of the smallest label, so the result never depends on the order of
+ * the scans or on the number of threads. Cells are indexed row by row, as in
+ * {@link Route#cellOf(int, int, int)}.
+ */
+public class DistanceTransform {
+
+  private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+  /**
+   * @param labels
+   *          - the label of the seed in each cell, -1 elsewhere; overwritten
+   *          with the label of the nearest seed, still -1 without any seed
+   * @param threads
+   *          - rows and columns are split in that many bands
+   * @return the distance of each cell to its nearest seed
+   */
+  public static int[] transform(final int width, final int height, final int[] labels, int threads) {
+    final int[] distances = new int[width * height];
+    for (int cell = 0; cell < distances.length; cell++) {
+      distances[cell] = labels[cell] < 0 ? INFINITY : 0;
+    }
+    // rows first, then every column over the distances along the rows
+    inBands(height, threads, new Band() {
+      public void scan(int from, int to) {
+        for (int y = from; y < to; y++) {
+          DistanceTransform.scan(distances, labels, y * width, 1, width);
+        }
+      }
+    });
+    inBands(width, threads, new Band() {
+      public void scan(int from, int to) {
+        for (int x = from; x < to; x++) {
+          DistanceTransform.scan(distances, labels, x, width, height);
+        }
+      }
+    });
+    return distances;
+  }
+
+  // forward then backward along one line of the grid
+  private static void scan(int[] distances, int[] labels, int start, int stride, int count) {
+    int end = start + (count - 1) * stride;
+    for (int cell = start + stride; cell <= end; cell += stride) {
+      relax(distances, labels, cell - stride, cell);
+    }
+    for (int cell = end - stride; cell >= start; cell -= stride) {
+      relax(distances, labels, cell + stride, cell);
+    }
+  }
+
+  private static void relax(int[] distances, int[] labels, int from, int to) {
+    int distance = distances[from] + 1;
+    if (distance < distances[to] || (distance == distances[to] && labels[from] < labels[to])) {
+      distances[to] = distance;
+      labels[to] = labels[from];
+    }
+  }
+
+  private interface Band {
+    void scan(int from, int to);
+  }
+
+  // lines in one band never touch the cells of another, so bands run side by side
+  private static void inBands(int lines, int threads, final Band band) {
+    threads = Math.max(1, Math.min(threads, lines));
+    if (threads == 1) {
+      band.scan(0, lines);
+      return;
+    }
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int from = (int) ((long) lines * t / threads);
+      final int to = (int) ((long) lines * (t + 1) / threads);
+      workers[t] = new Thread(new Runnable() {
+        public void run() {
+          band.scan(from, to);
+        }
+      });
+      workers[t].start();
+    }
+    try {
+      for (int t = 0; t < threads; t++) {
+        workers[t].join();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while computing the distance transform", ex);
+    }
+  }
+
+}
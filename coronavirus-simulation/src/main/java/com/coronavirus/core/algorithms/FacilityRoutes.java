@@ -0,0 +1,167 @@
+package com.coronavirus.core.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import com.coronavirus.core.RoadGraph;
+
+/**
+ * Shortest-path trees rooted at the road nodes closest to the facilities. For
+ * every root the table holds, for every road node, the next node on the way
+ * to the root, so a route to a facility is read by following these pointers
+ * instead of searching. The trees are built with Dijkstra from each root and
+ * can be saved to disk, tagged with a hash of the inputs they came from.
+ */
+public class FacilityRoutes implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final int MAGIC = 0x46524F55; // "FROU"
+  private static final int VERSION = 1;
+  // next hop of a root in its own tree
+  public static final int ARRIVED = -1;
+  // next hop of a node from which the root cannot be reached
+  public static final int UNREACHABLE = -2;
+
+  private final int numNodes;
+  private final int[] roots;
+  // tree of each node id, -1 when the node is not a root
+  private final int[] treeOf;
+  // next hops, numNodes entries per tree
+  private final int[] nextHop;
+
+  private FacilityRoutes(int numNodes, int[] roots, int[] nextHop) {
+    this.numNodes = numNodes;
+    this.roots = roots;
+    this.nextHop = nextHop;
+    this.treeOf = new int[numNodes];
+    Arrays.fill(this.treeOf, -1);
+    for (int t = 0; t < roots.length; t++) {
+      this.treeOf[roots[t]] = t;
+    }
+  }
+
+  // one Dijkstra per root; the road graph is undirected, so the parent of a
+  // node in the tree grown from the root is its next hop towards the root
+  public static FacilityRoutes build(RoadGraph graph, int[] roots) {
+    int numNodes = graph.getNumNodes();
+    int[] nextHop = new int[roots.length * numNodes];
+    AStar.Workspace w = new AStar.Workspace();
+    for (int t = 0; t < roots.length; t++) {
+      w.begin(numNodes);
+      w.open(roots[t], ARRIVED, 0, 0);
+      while (w.heapSize > 0) {
+        int x = w.pop();
+        w.closed[x] = w.generation;
+        int end = graph.getEndLink(x);
+        for (int link = graph.getFirstLink(x); link < end; link++) {
+          int next = graph.getTarget(link);
+          if (w.closed[next] == w.generation) {
+            continue;
+          }
+          double cost = w.g[x] + graph.getWeight(link);
+          if (w.seen[next] != w.generation) {
+            w.open(next, x, cost, cost);
+          } else if (cost < w.g[next]) {
+            w.improve(next, x, cost, cost);
+          }
+        }
+      }
+      int base = t * numNodes;
+      for (int x = 0; x < numNodes; x++) {
+        nextHop[base + x] = w.seen[x] == w.generation ? w.cameFrom[x] : UNREACHABLE;
+      }
+    }
+    return new FacilityRoutes(numNodes, roots.clone(), nextHop);
+  }
+
+  public boolean isRoot(int node) {
+    return node < this.numNodes && this.treeOf[node] >= 0;
+  }
+
+  // same shape as an A* path: the ids of every node after the origin up to the root, null if unreachable
+  public int[] path(int origin, int root) {
+    int base = this.treeOf[root] * this.numNodes;
+    if (this.nextHop[base + origin] == UNREACHABLE) {
+      return null;
+    }
+    int length = 0;
+    for (int x = this.nextHop[base + origin]; x != ARRIVED; x = this.nextHop[base + x]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int i = 0, x = this.nextHop[base + origin]; x != ARRIVED; x = this.nextHop[base + x]) {
+      path[i++] = x;
+    }
+    return path;
+  }
+
+  public int[] getRoots() {
+    return roots.clone();
+  }
+
+  public void write(File file, byte[] inputHash) throws IOException {
+    File temporary = File.createTempFile("routes", ".tmp", file.getAbsoluteFile().getParentFile());
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(inputHash.length);
+      out.write(inputHash);
+      out.writeInt(this.numNodes);
+      out.writeInt(this.roots.length);
+      for (int i = 0; i < this.roots.length; i++) {
+        out.writeInt(this.roots[i]);
+      }
+      for (int i = 0; i < this.nextHop.length; i++) {
+        out.writeInt(this.nextHop[i]);
+      }
+    } finally {
+      out.close();
+    }
+    if (!temporary.renameTo(file)) {
+      file.delete();
+      if (!temporary.renameTo(file)) {
+        temporary.delete();
+        throw new IOException("Could not move the facility routes to " + file);
+      }
+    }
+  }
+
+  // null when there is no table or it was built from other inputs
+  public static FacilityRoutes read(File file, byte[] inputHash) throws IOException {
+    if (!file.isFile()) {
+      return null;
+    }
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+        return null;
+      }
+      byte[] hash = new byte[in.getInt()];
+      in.get(hash);
+      if (!Arrays.equals(hash, inputHash)) {
+        return null;
+      }
+      int numNodes = in.getInt();
+      int[] roots = new int[in.getInt()];
+      in.asIntBuffer().get(roots);
+      in.position(in.position() + 4 * roots.length);
+      int[] nextHop = new int[roots.length * numNodes];
+      in.asIntBuffer().get(nextHop);
+      return new FacilityRoutes(numNodes, roots, nextHop);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+}
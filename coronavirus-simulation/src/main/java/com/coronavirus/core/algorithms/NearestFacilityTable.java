@@ -0,0 +1,109 @@
+package com.coronavirus.core.algorithms;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.enumeration.ActivityMapping;
+
+import sim.util.Bag;
+
+/**
+ * Nearest facilities of every family housing cell, for each activity that
+ * takes place at a facility. Homes and facilities never move, so the table is
+ * built once with the world; facilities at the same, smallest distance are all
+ * kept and one of them is drawn when a goal is chosen.
+ */
+public class NearestFacilityTable implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final int width;
+  // slot of each cell in the table, -1 for cells without family housing
+  private final int[] housingSlot;
+  // per activity, the nearest facilities of all slots one after the other
+  private final Building[][] nearest;
+  // per activity, where the nearest facilities of each slot start
+  private final int[][] offsets;
+
+  public NearestFacilityTable(CoronaVirus coronaVirus) {
+    this.width = coronaVirus.allCamps.getWidth();
+    this.housingSlot = new int[this.width * coronaVirus.allCamps.getHeight()];
+    Arrays.fill(this.housingSlot, -1);
+    Bag housing = coronaVirus.getFamilyHousing();
+    Building[] homes = new Building[housing.numObjs];
+    int numHomes = 0;
+    for (int i = 0; i < housing.numObjs; i++) {
+      Building home = (Building) housing.objs[i];
+      int cell = Route.cellOf(home.getLocationX(), home.getLocationY(), this.width);
+      if (this.housingSlot[cell] < 0) {
+        this.housingSlot[cell] = numHomes;
+        homes[numHomes++] = home;
+      }
+    }
+    int numActivities = ActivityMapping.values().length;
+    this.nearest = new Building[numActivities][];
+    this.offsets = new int[numActivities][];
+    this.add(ActivityMapping.WORK, coronaVirus.getWorks(), homes, numHomes);
+    this.add(ActivityMapping.SCHOOL, coronaVirus.getSchooles(), homes, numHomes);
+    this.add(ActivityMapping.RELIGION_ACTIVITY, coronaVirus.getMosques(), homes, numHomes);
+    this.add(ActivityMapping.MARKET, coronaVirus.getMarket(), homes, numHomes);
+    this.add(ActivityMapping.HEALTH_CENTER, coronaVirus.getHealthCenters(), homes, numHomes);
+  }
+
+  // squared distances are compared, so ties are exact
+  private void add(ActivityMapping activity, Bag facilities, Building[] homes, int numHomes) {
+    int[] offsets = new int[numHomes + 1];
+    Bag nearest = new Bag();
+    for (int slot = 0; slot < numHomes; slot++) {
+      offsets[slot] = nearest.numObjs;
+      long best = Long.MAX_VALUE;
+      for (int i = 0; i < facilities.numObjs; i++) {
+        Building facility = (Building) facilities.objs[i];
+        long dx = facility.getLocationX() - homes[slot].getLocationX();
+        long dy = facility.getLocationY() - homes[slot].getLocationY();
+        long distance = dx * dx + dy * dy;
+        if (distance < best) {
+          best = distance;
+          nearest.numObjs = offsets[slot];
+        }
+        if (distance == best) {
+          nearest.add(facility);
+        }
+      }
+    }
+    offsets[numHomes] = nearest.numObjs;
+    Building[] buildings = new Building[nearest.numObjs];
+    System.arraycopy(nearest.objs, 0, buildings, 0, nearest.numObjs);
+    this.nearest[activity.ordinal()] = buildings;
+    this.offsets[activity.ordinal()] = offsets;
+  }
+
+  public boolean contains(Building home, ActivityMapping activity) {
+    return this.offsets[activity.ordinal()] != null
+        && this.housingSlot[Route.cellOf(home.getLocationX(), home.getLocationY(), this.width)] >= 0;
+  }
+
+  // one of the nearest facilities drawn at random, null when there is none
+  public Building getNearest(Building home, ActivityMapping activity, RandomStream random) {
+    int ties = this.countNearest(home, activity);
+    if (ties == 0) {
+      return null;
+    }
+    return this.getNearest(home, activity, random.nextInt(ties));
+  }
+
+  // facilities tied at the smallest distance
+  public int countNearest(Building home, ActivityMapping activity) {
+    int slot = this.housingSlot[Route.cellOf(home.getLocationX(), home.getLocationY(), this.width)];
+    int[] offsets = this.offsets[activity.ordinal()];
+    return offsets[slot + 1] - offsets[slot];
+  }
+
+  public Building getNearest(Building home, ActivityMapping activity, int tie) {
+    int slot = this.housingSlot[Route.cellOf(home.getLocationX(), home.getLocationY(), this.width)];
+    return this.nearest[activity.ordinal()][this.offsets[activity.ordinal()][slot] + tie];
+  }
+
+}
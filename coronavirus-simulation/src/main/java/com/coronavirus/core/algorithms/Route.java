@@ -0,0 +1,54 @@
+package com.coronavirus.core.algorithms;
+
+import java.io.Serializable;
+
+import com.coronavirus.core.Node;
+import com.coronavirus.core.RoadGraph;
+
+/**
+ * Road route between two nodes, shared by every human taking it. The steps are
+ * the indices of the grid cells of the nodes along the way, row by row. It
+ * never changes once built; humans walk it with a cursor of their own.
+ */
+public final class Route implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final int[] cells;
+
+  // takes ownership of the cells
+  Route(int[] cells) {
+    this.cells = cells;
+  }
+
+  // the route through the given nodes, turned into cells in place
+  static Route fromNodes(RoadGraph graph, int[] nodes, int width) {
+    for (int i = 0; i < nodes.length; i++) {
+      Node node = graph.getNode(nodes[i]);
+      nodes[i] = cellOf(node.getLocation().getLocationX(), node.getLocation().getLocationY(), width);
+    }
+    return new Route(nodes);
+  }
+
+  public int length() {
+    return cells.length;
+  }
+
+  public int getCell(int i) {
+    return cells[i];
+  }
+
+  // the one layout of cell indices over the camp grid, row by row; every index
+  // kept in the tree, routes and population alike, goes through these three
+  public static int cellOf(int x, int y, int width) {
+    return y * width + x;
+  }
+
+  public static int cellX(int cell, int width) {
+    return cell % width;
+  }
+
+  public static int cellY(int cell, int width) {
+    return cell / width;
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.coronavirus.core.algorithms;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.Node;
+
+/**
+ * Bounded cache of the routes between pairs of road nodes, evicting the least
+ * recently used route once full. It can be used from several threads; a route
+ * missing from the cache is searched outside the lock, so two threads may
+ * occasionally search the same route.
+ */
+public class RouteCache implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  // marks a pair of nodes without any route between them
+  private static final Route NO_ROUTE = new Route(new int[0]);
+  private final CoronaVirus world;
+  private final LinkedHashMap<Long, Route> routes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public RouteCache(CoronaVirus world, final int capacity) {
+    this.world = world;
+    this.routes = new LinkedHashMap<Long, Route>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      protected boolean removeEldestEntry(Map.Entry<Long, Route> eldest) {
+        if (size() > capacity) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  // null when the nodes are not connected
+  public Route getRoute(Node origin, Node destination) {
+    if (origin == null || destination == null) {
+      return null;
+    }
+    Long key = Long.valueOf(((long) origin.getId() << 32) | (destination.getId() & 0xffffffffL));
+    Route route;
+    synchronized (this) {
+      route = this.routes.get(key);
+      if (route != null) {
+        this.hits++;
+      } else {
+        this.misses++;
+      }
+    }
+    if (route == null) {
+      // the trees already hold every route to a facility, only other destinations are searched
+      FacilityRoutes facilityRoutes = this.world.getFacilityRoutes();
+      int[] path;
+      if (facilityRoutes != null && facilityRoutes.isRoot(destination.getId())) {
+        path = facilityRoutes.path(origin.getId(), destination.getId());
+      } else {
+        path = AStar.astarNodes(this.world.roadGraph, origin.getId(), destination.getId());
+      }
+      route = path == null ? NO_ROUTE : Route.fromNodes(this.world.roadGraph, path, this.world.allCamps.getWidth());
+      synchronized (this) {
+        this.routes.put(key, route);
+      }
+    }
+    return route == NO_ROUTE ? null : route;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  public synchronized int size() {
+    return routes.size();
+  }
+
+}
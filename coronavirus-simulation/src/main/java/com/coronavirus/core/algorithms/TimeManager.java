@@ -38,4 +38,13 @@ public class TimeManager {
 
     return day + 1;
   }
+
+  public int minuteInDay(int currentStep) {
+    return currentStep % (HOURTIME * DURATION);
+  }
+
+  // first step of the day that follows the current one
+  public int startOfNextDay(int currentStep) {
+    return currentStep - this.minuteInDay(currentStep) + (HOURTIME * DURATION);
+  }
 }
@@ -0,0 +1,209 @@
+package com.coronavirus.core.batch;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.Parameters;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import net.sf.csv4j.CSVWriter;
+
+/**
+ * Runs a parameter sweep without the GUI. Every combination of the sweep is
+ * run once per replication, each run with its own simulation, seed and output
+ * directory, several runs at a time on a pool of threads. The final state of
+ * every run is written as one row of {@code summary.csv}.
+ *
+ * <pre>
+ * BatchRunner -sweep sweep.properties [-file base.params] [-output batch]
+ *     [-replications 1] [-seed 1] [-days 30] [-threads processors]
+ * </pre>
+ *
+ * Replication r of every combination uses seed {@code seed + r}.
+ */
+public class BatchRunner {
+
+  private static final String SUMMARY_FILE_NAME = "summary.csv";
+  private static final int MINUTES_IN_DAY = 1440;
+  private static final HealthStatus[] REPORTED = { HealthStatus.SUSCEPTIBLE, HealthStatus.EXPOSED,
+      HealthStatus.MILD_INFECTION, HealthStatus.SEVERE_INFECTION, HealthStatus.TOXIC_INFECTION,
+      HealthStatus.RECOVERED, HealthStatus.DEAD };
+
+  private final String baseFile;
+  private final Sweep sweep;
+  private final File outputDirectory;
+  private final int replications;
+  private final long firstSeed;
+  private final int days;
+  private final int threads;
+
+  public BatchRunner(String baseFile, Sweep sweep, File outputDirectory, int replications, long firstSeed, int days,
+      int threads) {
+    this.baseFile = baseFile;
+    this.sweep = sweep;
+    this.outputDirectory = outputDirectory;
+    this.replications = replications;
+    this.firstSeed = firstSeed;
+    this.days = days;
+    this.threads = threads;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String sweepFile = argument(args, "-sweep", null);
+    if (sweepFile == null) {
+      System.err.println("Usage: BatchRunner -sweep sweep.properties [-file base.params] [-output batch]"
+          + " [-replications 1] [-seed 1] [-days 30] [-threads processors]");
+      System.exit(1);
+    }
+    BatchRunner runner = new BatchRunner(argument(args, "-file", null), Sweep.read(sweepFile),
+        new File(argument(args, "-output", "batch")), Integer.parseInt(argument(args, "-replications", "1")),
+        Long.parseLong(argument(args, "-seed", "1")), Integer.parseInt(argument(args, "-days", "30")),
+        Integer.parseInt(argument(args, "-threads", Integer.toString(Runtime.getRuntime().availableProcessors()))));
+    runner.run();
+    System.exit(0);
+  }
+
+  public void run() throws IOException, InterruptedException, ExecutionException {
+    if (!this.outputDirectory.isDirectory() && !this.outputDirectory.mkdirs()) {
+      throw new IOException("Could not create the output directory: " + this.outputDirectory);
+    }
+    List<Map<String, String>> configurations = this.sweep.configurations();
+    ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, this.threads));
+    List<Future<String[]>> rows = new ArrayList<Future<String[]>>();
+    try {
+      int runId = 0;
+      for (Map<String, String> configuration : configurations) {
+        for (int r = 0; r < this.replications; r++) {
+          rows.add(pool.submit(new Run(runId++, this.firstSeed + r, configuration)));
+        }
+      }
+      this.writeSummary(rows);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  // rows are written in run order, each as soon as it and all before it are done
+  private void writeSummary(List<Future<String[]>> rows)
+      throws IOException, InterruptedException, ExecutionException {
+    BufferedWriter bufferedWriter = new BufferedWriter(
+        new FileWriter(new File(this.outputDirectory, SUMMARY_FILE_NAME)));
+    try {
+      CSVWriter csvWriter = new CSVWriter(bufferedWriter);
+      csvWriter.writeLine(header(this.sweep.getNames()));
+      for (Future<String[]> row : rows) {
+        csvWriter.writeLine(row.get());
+        bufferedWriter.flush();
+      }
+    } finally {
+      bufferedWriter.close();
+    }
+  }
+
+  static String[] header(List<String> names) {
+    List<String> header = new ArrayList<String>();
+    header.add("RUN");
+    header.add("SEED");
+    header.addAll(names);
+    for (HealthStatus status : REPORTED) {
+      header.add(status.name());
+    }
+    header.add("NUMBER_OF_VISITS");
+    return header.toArray(new String[header.size()]);
+  }
+
+  // the values of the combination in the order of the names, as in the header
+  static List<String> parameterColumns(List<String> names, Map<String, String> configuration) {
+    List<String> columns = new ArrayList<String>();
+    for (String name : names) {
+      columns.add(configuration.get(name));
+    }
+    return columns;
+  }
+
+  private ParameterDatabase parameterDatabase(Map<String, String> configuration) throws IOException {
+    ParameterDatabase parameterDB;
+    if (this.baseFile == null) {
+      parameterDB = new ParameterDatabase();
+    } else {
+      parameterDB = new ParameterDatabase(new File(this.baseFile).getAbsoluteFile());
+    }
+    for (Map.Entry<String, String> value : configuration.entrySet()) {
+      parameterDB.set(new Parameter(value.getKey()), value.getValue());
+    }
+    return parameterDB;
+  }
+
+  private static String argument(String[] args, String name, String defaultValue) {
+    for (int i = 0; i < args.length - 1; i++) {
+      if (args[i].equals(name)) {
+        return args[i + 1];
+      }
+    }
+    return defaultValue;
+  }
+
+  /**
+   * One replication of one combination, on a simulation of its own.
+   */
+  class Run implements Callable<String[]> {
+
+    private final int runId;
+    private final long seed;
+    private final Map<String, String> configuration;
+
+    Run(int runId, long seed, Map<String, String> configuration) {
+      this.runId = runId;
+      this.seed = seed;
+      this.configuration = configuration;
+    }
+
+    public String[] call() throws IOException {
+      File runDirectory = new File(outputDirectory, "run-" + this.runId);
+      if (!runDirectory.isDirectory() && !runDirectory.mkdirs()) {
+        throw new IOException("Could not create the output directory: " + runDirectory);
+      }
+      CoronaVirus coronaVirus = new CoronaVirus(this.seed, new Parameters(parameterDatabase(this.configuration)));
+      coronaVirus.setOutputDirectory(runDirectory);
+      coronaVirus.start();
+      double end = (double) days * MINUTES_IN_DAY;
+      while (coronaVirus.schedule.getTime() < end - 1) {
+        if (!coronaVirus.schedule.step(coronaVirus)) {
+          break;
+        }
+      }
+      coronaVirus.finish();
+      Logger.getLogger(BatchRunner.class.getName()).log(Level.INFO,
+          "Run " + this.runId + " (seed " + this.seed + ") done: " + this.configuration);
+      return this.summary(coronaVirus);
+    }
+
+    private String[] summary(CoronaVirus coronaVirus) {
+      List<String> row = new ArrayList<String>();
+      row.add(Integer.toString(this.runId));
+      row.add(Long.toString(this.seed));
+      row.addAll(parameterColumns(sweep.getNames(), this.configuration));
+      for (HealthStatus status : REPORTED) {
+        row.add(Integer.toString(coronaVirus.getPopulation().count(status)));
+      }
+      row.add(Integer.toString(coronaVirus.getTotalVisitsMedicalCenter()));
+      return row.toArray(new String[row.size()]);
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.coronavirus.core.batch;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Parameter sweep read from a properties file. Every key is the name of a
+ * parameter, as written in the parameter file, and its value is a list of
+ * values separated by spaces. A value written as {@code from:to:step} stands
+ * for every value in that range, both ends included:
+ *
+ * <pre>
+ * probabilityOfMildInfection = 0.6:0.9:0.1
+ * healthFacilityCapacity = 10 20 40
+ * </pre>
+ *
+ * The sweep is the cartesian product of all lists, in the order of the
+ * parameter names.
+ */
+public class Sweep {
+
+  private final TreeMap<String, List<String>> values;
+
+  public Sweep() {
+    this.values = new TreeMap<String, List<String>>();
+  }
+
+  public static Sweep read(String fileName) throws IOException {
+    Properties properties = new Properties();
+    InputStream input = new FileInputStream(fileName);
+    try {
+      properties.load(input);
+    } finally {
+      input.close();
+    }
+    Sweep sweep = new Sweep();
+    Enumeration<?> names = properties.propertyNames();
+    while (names.hasMoreElements()) {
+      String name = (String) names.nextElement();
+      sweep.add(name, properties.getProperty(name));
+    }
+    return sweep;
+  }
+
+  public void add(String name, String spec) {
+    List<String> list = new ArrayList<String>();
+    for (String token : spec.trim().split("\\s+")) {
+      if (token.length() == 0) {
+        continue;
+      } else if (token.indexOf(':') >= 0) {
+        list.addAll(expandRange(name, token));
+      } else {
+        list.add(token);
+      }
+    }
+    if (list.isEmpty()) {
+      throw new IllegalArgumentException("No values for parameter: " + name);
+    }
+    this.values.put(name, list);
+  }
+
+  public List<String> getNames() {
+    return new ArrayList<String>(this.values.keySet());
+  }
+
+  // every combination of the values, one map from parameter name to value each
+  public List<Map<String, String>> configurations() {
+    List<Map<String, String>> configurations = new ArrayList<Map<String, String>>();
+    configurations.add(new TreeMap<String, String>());
+    for (Map.Entry<String, List<String>> parameter : this.values.entrySet()) {
+      List<Map<String, String>> next = new ArrayList<Map<String, String>>();
+      for (Map<String, String> configuration : configurations) {
+        for (String value : parameter.getValue()) {
+          Map<String, String> extended = new TreeMap<String, String>(configuration);
+          extended.put(parameter.getKey(), value);
+          next.add(extended);
+        }
+      }
+      configurations = next;
+    }
+    return Collections.unmodifiableList(configurations);
+  }
+
+  // decimal arithmetic, so that 0.1 steps do not drift
+  private static List<String> expandRange(String name, String token) {
+    String[] parts = token.split(":");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Expected from:to:step for parameter " + name + ", got: " + token);
+    }
+    BigDecimal from = new BigDecimal(parts[0]);
+    BigDecimal to = new BigDecimal(parts[1]);
+    BigDecimal step = new BigDecimal(parts[2]);
+    if (step.signum() <= 0) {
+      throw new IllegalArgumentException("Step must be positive for parameter " + name + ", got: " + token);
+    }
+    List<String> list = new ArrayList<String>();
+    for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+      list.add(value.toPlainString());
+    }
+    return list;
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.coronavirus.core.disease;
+
+import java.io.Serializable;
+
+import com.coronavirus.model.Population;
+
+import sim.util.IntBag;
+
+/**
+ * Calendar queue of the days on which humans leave their disease status or
+ * their vaccine takes effect. Days are laid on a ring of buckets, so an entry
+ * is added in O(1) and a day only touches the humans filed under it. Entries
+ * are never removed early: when its bucket comes due, an entry is checked
+ * against the days kept in the population, and one that no longer matches, of
+ * a human rescheduled or dead, is dropped then. An entry for a later lap of
+ * the ring stays in its bucket.
+ */
+public class DiseaseCalendar implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  // days on the ring, a power of two
+  private static final int BUCKETS = 64;
+  private final IntBag[] buckets;
+  // humans due on the day just taken
+  private final IntBag due;
+  // first day not taken yet, the day of the next disease progression
+  private int nextDay;
+
+  public DiseaseCalendar() {
+    this.buckets = new IntBag[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets[i] = new IntBag();
+    }
+    this.due = new IntBag();
+    this.nextDay = 0;
+  }
+
+  public void schedule(int index, int day) {
+    this.buckets[day & (BUCKETS - 1)].add(index);
+  }
+
+  // the humans due on the day, valid until the next call
+  public IntBag take(int day, Population population) {
+    this.due.clear();
+    IntBag bucket = this.buckets[day & (BUCKETS - 1)];
+    int kept = 0;
+    for (int i = 0; i < bucket.numObjs; i++) {
+      int index = bucket.objs[i];
+      int exitDay = population.diseaseExitDay[index];
+      int vaccineDay = population.vaccineEffectDay[index];
+      if (exitDay == day || vaccineDay == day) {
+        this.due.add(index);
+      } else if (isLaterLap(exitDay, day) || isLaterLap(vaccineDay, day)) {
+        bucket.objs[kept++] = index;
+      }
+    }
+    bucket.numObjs = kept;
+    this.nextDay = day + 1;
+    return this.due;
+  }
+
+  private static boolean isLaterLap(int scheduled, int day) {
+    return scheduled > day && ((scheduled - day) & (BUCKETS - 1)) == 0;
+  }
+
+  public int getNextDay() {
+    return nextDay;
+  }
+
+}
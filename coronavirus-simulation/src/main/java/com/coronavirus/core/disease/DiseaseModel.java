@@ -0,0 +1,25 @@
+package com.coronavirus.core.disease;
+
+import java.io.Serializable;
+
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+/**
+ * How the disease of a human evolves from the day of infection on. A model
+ * keeps nothing per human but the day on which the current status ends, in
+ * the population store, and is only asked again on that day. The health
+ * status itself is changed by the human, from the status the model returns,
+ * so that every counter stays in step.
+ */
+public interface DiseaseModel extends Serializable {
+
+  // status of a susceptible human infected before the progression of the given day,
+  // the day it ends set in the population
+  HealthStatus infect(Population population, int index, int day, RandomStream random);
+
+  // status entered on the day the current one ends, the day it ends in turn set in the population
+  HealthStatus transition(Population population, int index, int day, RandomStream random);
+
+}
@@ -0,0 +1,156 @@
+package com.coronavirus.core.disease;
+
+import java.util.Arrays;
+
+import com.coronavirus.core.Parameters;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+/**
+ * Disease model given as a table over the health statuses. A state with a
+ * dwell time lasts that many days, drawn uniformly between a minimum and a
+ * maximum when entered, and then moves to one of its next states, drawn by
+ * their probabilities. A state entered at the change of day counts that day
+ * at once, so it lasts at least until the next one. States without a row,
+ * such as recovered or dead, never end. The table is compiled into arrays
+ * indexed by status ordinal, so the end of a state is a lookup and two draws.
+ */
+public class DiseaseStateMachine implements DiseaseModel {
+
+  private static final long serialVersionUID = 1L;
+  private static final int NO_DWELL = -1;
+  private final HealthStatus infection;
+  // by status ordinal
+  private final int[] minimumDays;
+  private final int[] maximumDays;
+  private final HealthStatus[][] next;
+  private final double[][] cumulativeProbabilities;
+
+  private DiseaseStateMachine(Builder builder) {
+    int states = HealthStatus.values().length;
+    this.infection = builder.infection;
+    this.minimumDays = builder.minimumDays.clone();
+    this.maximumDays = builder.maximumDays.clone();
+    this.next = new HealthStatus[states][];
+    this.cumulativeProbabilities = new double[states][];
+    for (int s = 0; s < states; s++) {
+      int branches = builder.numBranches[s];
+      this.next[s] = new HealthStatus[branches];
+      this.cumulativeProbabilities[s] = new double[branches];
+      double cumulative = 0;
+      for (int b = 0; b < branches; b++) {
+        cumulative += builder.probabilities[s][b];
+        this.next[s][b] = builder.next[s][b];
+        this.cumulativeProbabilities[s][b] = cumulative;
+      }
+    }
+  }
+
+  // the course of the disease as given by the parameters
+  public static DiseaseStateMachine fromParameters(Parameters.GlobalParamters global) {
+    double mild = global.getProbabilityOfMildInfection();
+    double toxic = global.getProbabilityFromSevereInfectionTotoxicInfection();
+    double death = global.getProbabilityOfDeath();
+    return new Builder(HealthStatus.EXPOSED)
+        .dwell(HealthStatus.EXPOSED, global.getMinimumIncubationPeriod(), global.getMaximumIncubationPeriod())
+        .transition(HealthStatus.EXPOSED, HealthStatus.MILD_INFECTION, mild)
+        .transition(HealthStatus.EXPOSED, HealthStatus.SEVERE_INFECTION, 1 - mild)
+        .dwell(HealthStatus.MILD_INFECTION, global.getMinimumInfectionPeriod(), global.getMaximumInfectionPeriod())
+        .transition(HealthStatus.MILD_INFECTION, HealthStatus.RECOVERED, 1)
+        .dwell(HealthStatus.SEVERE_INFECTION, global.getMinimumInfectionPeriod(), global.getMaximumInfectionPeriod())
+        .transition(HealthStatus.SEVERE_INFECTION, HealthStatus.TOXIC_INFECTION, toxic)
+        .transition(HealthStatus.SEVERE_INFECTION, HealthStatus.RECOVERED, 1 - toxic)
+        .dwell(HealthStatus.TOXIC_INFECTION, global.getMinimumToxicPeriod(), global.getMaximumToxicPeriod())
+        .transition(HealthStatus.TOXIC_INFECTION, HealthStatus.DEAD, death)
+        .transition(HealthStatus.TOXIC_INFECTION, HealthStatus.RECOVERED, 1 - death)
+        .build();
+  }
+
+  public HealthStatus infect(Population population, int index, int day, RandomStream random) {
+    int state = this.infection.ordinal();
+    population.diseaseExitDay[index] = this.minimumDays[state] == NO_DWELL ? Population.NO_DAY
+        : day + this.drawDwell(state, random);
+    return this.infection;
+  }
+
+  public HealthStatus transition(Population population, int index, int day, RandomStream random) {
+    int state = population.healthStatus[index];
+    if (this.minimumDays[state] == NO_DWELL) {
+      population.diseaseExitDay[index] = Population.NO_DAY;
+      return HealthStatus.fromOrdinal(state);
+    }
+    HealthStatus[] next = this.next[state];
+    int branch = 0;
+    if (next.length > 1) {
+      double draw = random.nextDouble();
+      double[] cumulative = this.cumulativeProbabilities[state];
+      while (branch < next.length - 1 && draw >= cumulative[branch]) {
+        branch++;
+      }
+    }
+    int entered = next[branch].ordinal();
+    population.diseaseExitDay[index] = this.minimumDays[entered] == NO_DWELL ? Population.NO_DAY
+        : day + Math.max(1, this.drawDwell(entered, random));
+    return next[branch];
+  }
+
+  private int drawDwell(int state, RandomStream random) {
+    int minimum = this.minimumDays[state];
+    int range = this.maximumDays[state] - minimum;
+    return range > 0 ? minimum + random.nextInt(range + 1) : minimum;
+  }
+
+  /**
+   * Collects the rows of the table; the probabilities of the next states of a
+   * status are expected to add up to one.
+   */
+  public static class Builder {
+
+    private final HealthStatus infection;
+    private final int[] minimumDays;
+    private final int[] maximumDays;
+    private final int[] numBranches;
+    private final HealthStatus[][] next;
+    private final double[][] probabilities;
+
+    // the status in which every infection starts
+    public Builder(HealthStatus infection) {
+      int states = HealthStatus.values().length;
+      this.infection = infection;
+      this.minimumDays = new int[states];
+      this.maximumDays = new int[states];
+      Arrays.fill(this.minimumDays, NO_DWELL);
+      Arrays.fill(this.maximumDays, NO_DWELL);
+      this.numBranches = new int[states];
+      this.next = new HealthStatus[states][states];
+      this.probabilities = new double[states][states];
+    }
+
+    public Builder dwell(HealthStatus status, int minimumDays, int maximumDays) {
+      if (minimumDays < 0 || maximumDays < minimumDays) {
+        throw new IllegalArgumentException("Invalid dwell time for " + status + ": " + minimumDays + "-" + maximumDays);
+      }
+      this.minimumDays[status.ordinal()] = minimumDays;
+      this.maximumDays[status.ordinal()] = maximumDays;
+      return this;
+    }
+
+    public Builder transition(HealthStatus from, HealthStatus to, double probability) {
+      int s = from.ordinal();
+      this.next[s][this.numBranches[s]] = to;
+      this.probabilities[s][this.numBranches[s]++] = probability;
+      return this;
+    }
+
+    public DiseaseStateMachine build() {
+      for (int s = 0; s < this.numBranches.length; s++) {
+        if (this.minimumDays[s] != NO_DWELL && this.numBranches[s] == 0) {
+          throw new IllegalStateException("No transition out of " + HealthStatus.fromOrdinal(s));
+        }
+      }
+      return new DiseaseStateMachine(this);
+    }
+  }
+
+}
@@ -0,0 +1,21 @@
+package com.coronavirus.core.engine;
+
+import com.coronavirus.model.Human;
+
+import sim.engine.Steppable;
+
+/**
+ * Steps the whole population at once and knows, after each step, the earliest
+ * step at which any living human has to be stepped again.
+ */
+public interface BatchStepper extends Steppable {
+
+  int getEarliestWakeUp();
+
+  // a human created after the stepper, when an aggregated camp is expanded
+  void add(Human human);
+
+  // release what the stepper holds on to, such as its threads, once the run is over
+  void cleanup();
+
+}
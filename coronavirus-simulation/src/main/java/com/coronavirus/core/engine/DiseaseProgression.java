@@ -0,0 +1,44 @@
+package com.coronavirus.core.engine;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import sim.util.IntBag;
+
+/**
+ * Advances the disease once a day, at the first step of the day and before the
+ * transmission and the humans move. Only the humans the disease calendar has
+ * due that day, leaving their status or getting the effect of their vaccine,
+ * are visited, so the humans in the middle of a status pay nothing.
+ */
+public class DiseaseProgression implements Steppable {
+
+  private static final long serialVersionUID = 1L;
+  public static final int ORDERING = Human.ORDERING - 2;
+  public static final int MINUTES_IN_DAY = 1440;
+  private final Population population;
+
+  public DiseaseProgression(Population population) {
+    this.population = population;
+  }
+
+  public void step(SimState state) {
+    CoronaVirus coronaVirus = (CoronaVirus) state;
+    Population population = this.population;
+    int day = (int) state.schedule.getTime() / MINUTES_IN_DAY;
+    IntBag due = population.getDiseaseCalendar().take(day, population);
+    for (int i = 0; i < due.numObjs; i++) {
+      Human human = population.humans[due.objs[i]];
+      if (!human.progressDisease(coronaVirus, day)) {
+        population.deactivate(human.getIndex());
+      }
+    }
+    if (coronaVirus.getHybridPopulation() != null) {
+      coronaVirus.getHybridPopulation().progress(day);
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+package com.coronavirus.core.engine;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+import sim.engine.ParallelSequence;
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import sim.util.IntBag;
+
+/**
+ * Steps the population on several threads in two phases. Humans are
+ * partitioned by the block of the grid their home lies in; during the decide
+ * phase every partition steps its humans in index order, each human drawing
+ * from its own random stream, and records the changes to shared state. The
+ * commit phase then applies those changes one partition after the other.
+ * Partitions depend only on the homes and the block size, never on the number
+ * of threads, so a given seed always produces the same run.
+ */
+public class ParallelPopulationStepper implements BatchStepper {
+
+  private static final long serialVersionUID = 1L;
+  public static final int ORDERING = Human.ORDERING;
+  private final Partition[] partitions;
+  // partitions by block, humans added later join the partition of their block
+  private final TreeMap<Integer, Partition> partitionsByBlock;
+  private final int blockSize;
+  private final int blocksY;
+  private final ParallelSequence decide;
+  private int earliestWakeUp;
+
+  public ParallelPopulationStepper(CoronaVirus coronaVirus) {
+    this.blockSize = Math.max(1, coronaVirus.getParams().getGlobal().getParallelPartitionSize());
+    int threads = coronaVirus.getParams().getGlobal().getNumberOfThreads();
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    // group the humans by the block of their home, ordered by block
+    Population population = coronaVirus.getPopulation();
+    this.blocksY = coronaVirus.allCamps.getHeight() / this.blockSize + 1;
+    TreeMap<Integer, IntBag> blocks = new TreeMap<Integer, IntBag>();
+    for (int i = 0; i < population.numHumans; i++) {
+      Integer block = this.blockOf(population.humans[i].getHome());
+      IntBag members = blocks.get(block);
+      if (members == null) {
+        members = new IntBag();
+        blocks.put(block, members);
+      }
+      members.add(i);
+    }
+
+    ArrayList<Partition> partitions = new ArrayList<Partition>();
+    this.partitionsByBlock = new TreeMap<Integer, Partition>();
+    for (Map.Entry<Integer, IntBag> block : blocks.entrySet()) {
+      Partition partition = new Partition(block.getValue(), new WorldChanges(coronaVirus, true));
+      for (int i = 0; i < partition.members.numObjs; i++) {
+        Human human = population.humans[partition.members.objs[i]];
+        human.setWorldChanges(partition.changes);
+      }
+      partitions.add(partition);
+      this.partitionsByBlock.put(block.getKey(), partition);
+    }
+    this.partitions = partitions.toArray(new Partition[partitions.size()]);
+    this.decide = new ParallelSequence(this.partitions, Math.min(threads, Math.max(1, this.partitions.length)));
+  }
+
+  public void step(SimState state) {
+    this.decide.step(state);
+    int earliestWakeUp = Integer.MAX_VALUE;
+    for (int i = 0; i < this.partitions.length; i++) {
+      this.partitions[i].changes.commit();
+      earliestWakeUp = Math.min(earliestWakeUp, this.partitions[i].earliestWakeUp);
+    }
+    this.earliestWakeUp = earliestWakeUp;
+  }
+
+  public int getEarliestWakeUp() {
+    return earliestWakeUp;
+  }
+
+  // the partitions are fixed, a block without one goes to the partition of the nearest block before it
+  public void add(Human human) {
+    // without any agent at the start nobody is infected, so no camp is ever expanded
+    if (this.partitionsByBlock.isEmpty()) {
+      return;
+    }
+    Integer block = this.blockOf(human.getHome());
+    Partition partition = this.partitionsByBlock.get(block);
+    if (partition == null) {
+      SortedMap<Integer, Partition> before = this.partitionsByBlock.headMap(block);
+      Integer nearest = before.isEmpty() ? this.partitionsByBlock.firstKey() : before.lastKey();
+      partition = this.partitionsByBlock.get(nearest);
+    }
+    partition.members.add(human.getIndex());
+    human.setWorldChanges(partition.changes);
+  }
+
+  // stop the threads of the decide phase
+  public void cleanup() {
+    this.decide.cleanup();
+  }
+
+  private Integer blockOf(Building home) {
+    int block = (home.getLocationX() / this.blockSize) * this.blocksY + home.getLocationY() / this.blockSize;
+    return Integer.valueOf(block);
+  }
+
+  static class Partition implements Steppable {
+
+    private static final long serialVersionUID = 1L;
+    private static final byte DEAD = (byte) HealthStatus.DEAD.ordinal();
+    final IntBag members;
+    final WorldChanges changes;
+    int earliestWakeUp;
+
+    Partition(IntBag members, WorldChanges changes) {
+      this.members = members;
+      this.changes = changes;
+    }
+
+    public void step(SimState state) {
+      CoronaVirus coronaVirus = (CoronaVirus) state;
+      boolean eventDriven = coronaVirus.isEventDriven();
+      int currentStep = (int) coronaVirus.schedule.getTime();
+      Population population = coronaVirus.getPopulation();
+      int earliestWakeUp = Integer.MAX_VALUE;
+      for (int m = 0; m < this.members.numObjs; m++) {
+        int i = this.members.objs[m];
+        if (population.healthStatus[i] == DEAD) {
+          continue;
+        } else if (!eventDriven || population.nextWakeUp[i] <= currentStep) {
+          population.humans[i].step(state);
+        }
+        earliestWakeUp = Math.min(earliestWakeUp, eventDriven ? population.nextWakeUp[i] : currentStep + 1);
+      }
+      this.earliestWakeUp = earliestWakeUp;
+    }
+  }
+
+}
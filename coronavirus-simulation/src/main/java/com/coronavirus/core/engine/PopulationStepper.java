@@ -0,0 +1,56 @@
+package com.coronavirus.core.engine;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+import sim.engine.SimState;
+
+/**
+ * Steps the whole population in a single loop over the population store,
+ * instead of scheduling every human separately. In event-driven mode, humans
+ * whose next wake-up lies in the future are skipped without being touched.
+ */
+public class PopulationStepper implements BatchStepper {
+
+  private static final long serialVersionUID = 1L;
+  public static final int ORDERING = Human.ORDERING;
+  private static final byte DEAD = (byte) HealthStatus.DEAD.ordinal();
+  private final Population population;
+  private int earliestWakeUp;
+
+  public PopulationStepper(Population population) {
+    this.population = population;
+  }
+
+  public void step(SimState state) {
+    CoronaVirus coronaVirus = (CoronaVirus) state;
+    boolean eventDriven = coronaVirus.isEventDriven();
+    int currentStep = (int) coronaVirus.schedule.getTime();
+    Population population = this.population;
+    int earliestWakeUp = Integer.MAX_VALUE;
+    for (int i = 0; i < population.numHumans; i++) {
+      if (population.healthStatus[i] == DEAD) {
+        continue;
+      } else if (!eventDriven || population.nextWakeUp[i] <= currentStep) {
+        population.humans[i].step(state);
+      }
+      earliestWakeUp = Math.min(earliestWakeUp, eventDriven ? population.nextWakeUp[i] : currentStep + 1);
+    }
+    this.earliestWakeUp = earliestWakeUp;
+  }
+
+  public int getEarliestWakeUp() {
+    return earliestWakeUp;
+  }
+
+  public void add(Human human) {
+    // stepped from the population store like everyone else
+  }
+
+  public void cleanup() {
+    // steps on the thread of the schedule, nothing to release
+  }
+
+}
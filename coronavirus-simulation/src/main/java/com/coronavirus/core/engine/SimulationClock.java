@@ -0,0 +1,67 @@
+package com.coronavirus.core.engine;
+
+import com.coronavirus.core.algorithms.TimeManager;
+
+import sim.engine.SimState;
+import sim.engine.Steppable;
+
+/**
+ * Drives the per-minute phases of the simulation in their usual order and
+ * schedules itself again for the next minute. When no human has anything to
+ * do before a later minute, typically at night when everyone is at home, it
+ * jumps straight there instead, but never past the minute of the daily report
+ * or the start of the next day.
+ */
+public class SimulationClock implements Steppable {
+
+  private static final long serialVersionUID = 1L;
+  public static final int ORDERING = 0;
+  // minute of the day at which the report writes its results
+  public static final int REPORT_MINUTE = 1439;
+  private final TimeManager time;
+  private final Steppable updater;
+  private final Steppable facility;
+  private final Steppable diseaseProgression;
+  private final Steppable transmission;
+  private final BatchStepper population;
+  private final Steppable report;
+
+  public SimulationClock(TimeManager time, Steppable updater, Steppable facility, Steppable diseaseProgression,
+      Steppable transmission, BatchStepper population, Steppable report) {
+    this.time = time;
+    this.updater = updater;
+    this.facility = facility;
+    this.diseaseProgression = diseaseProgression;
+    this.transmission = transmission;
+    this.population = population;
+    this.report = report;
+  }
+
+  public void step(SimState state) {
+    int now = (int) state.schedule.getTime();
+    int minuteInDay = this.time.minuteInDay(now);
+    this.updater.step(state);
+    this.facility.step(state);
+    if (minuteInDay == 0) {
+      this.diseaseProgression.step(state);
+    }
+    // covers every minute skipped since the previous step
+    if (this.transmission != null) {
+      this.transmission.step(state);
+    }
+    this.population.step(state);
+    this.report.step(state);
+
+    int next = now + 1;
+    int earliestWakeUp = this.population.getEarliestWakeUp();
+    if (earliestWakeUp > next) {
+      int nextReport = now - minuteInDay + REPORT_MINUTE;
+      next = Math.min(earliestWakeUp, this.time.startOfNextDay(now));
+      if (nextReport > now) {
+        next = Math.min(next, nextReport);
+      }
+    }
+    state.schedule.scheduleOnce(next, ORDERING, this);
+  }
+
+}
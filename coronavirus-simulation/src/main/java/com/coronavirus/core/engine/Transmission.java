@@ -0,0 +1,136 @@
+package com.coronavirus.core.engine;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.HybridPopulation;
+import com.coronavirus.core.Parameters;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.core.random.RandomStreams;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.ActivityMapping;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import sim.util.Bag;
+
+/**
+ * Human-to-human transmission between the humans sharing a building. At every
+ * step, before the humans move, each building with infectious humans exposes
+ * its susceptible humans for the minutes elapsed since the previous step:
+ * with I infectious humans and the contact rate beta of the activity of the
+ * building, every susceptible is infected with probability
+ * 1 - (1 - beta)^(I * elapsed). The buildings are reached from the active
+ * humans, so a step costs in proportion to the infectious humans and the
+ * buildings they are in, never to the population or the grid. An infectious
+ * human in a building of a camp still kept as compartments expands that camp,
+ * and one at a facility exposes the aggregated humans who would use it.
+ */
+public class Transmission implements Steppable {
+
+  private static final long serialVersionUID = 1L;
+  public static final int ORDERING = Human.ORDERING - 1;
+  private final Population population;
+  private final RandomStream random;
+  // infection probability per minute and infectious human, by activity ordinal
+  private final double[] contactRates;
+  // draw the number of infections per building instead of one draw per susceptible
+  private final boolean aggregated;
+  // camps still aggregated, null when every human is an agent
+  private final HybridPopulation hybridPopulation;
+  // buildings with infectious humans at the current step
+  private final Bag buildings;
+  private int previousStep;
+
+  public Transmission(CoronaVirus coronaVirus) {
+    this.population = coronaVirus.getPopulation();
+    this.random = coronaVirus.getRandomStreams().forSubsystem(RandomStreams.Subsystem.TRANSMISSION);
+    Parameters.GlobalParamters global = coronaVirus.getParams().getGlobal();
+    this.contactRates = new double[ActivityMapping.values().length];
+    this.contactRates[ActivityMapping.STAY_HOME.ordinal()] = global.getContactRateAtHome();
+    this.contactRates[ActivityMapping.WORK.ordinal()] = global.getContactRateAtWork();
+    this.contactRates[ActivityMapping.SCHOOL.ordinal()] = global.getContactRateAtSchool();
+    this.contactRates[ActivityMapping.MARKET.ordinal()] = global.getContactRateAtMarket();
+    this.contactRates[ActivityMapping.RELIGION_ACTIVITY.ordinal()] = global.getContactRateAtMosque();
+    this.contactRates[ActivityMapping.HEALTH_CENTER.ordinal()] = global.getContactRateAtHealthCenter();
+    this.aggregated = global.isAggregatedTransmission();
+    this.hybridPopulation = coronaVirus.getHybridPopulation();
+    this.buildings = new Bag();
+    this.previousStep = -1;
+  }
+
+  public void step(SimState state) {
+    int currentStep = (int) state.schedule.getTime();
+    int elapsed = this.previousStep < 0 ? 1 : currentStep - this.previousStep;
+    this.previousStep = currentStep;
+    if (elapsed <= 0) {
+      return;
+    }
+
+    // every building with an infectious human, once, in the order of the active index
+    Population population = this.population;
+    this.buildings.clear();
+    for (int i = 0; i < population.numActive; i++) {
+      Human human = population.humans[population.active[i]];
+      Building building = human.getOccupiedBuilding();
+      // a human on a trip is in no building and exposes nobody
+      if (human.isInTransit() || building == null || building.getActivityMapping() == null
+          || !HealthStatus.isHumanInfected(human.getCurrentHealthStatus())
+          || building.getExposureStep() == currentStep) {
+        continue;
+      }
+      // the infection arrived in a camp kept as compartments, its humans become agents first
+      if (this.hybridPopulation != null && this.hybridPopulation.isAggregated(building.getCampID())) {
+        this.hybridPopulation.expand(building.getCampID());
+      }
+      building.setExposureStep(currentStep);
+      this.buildings.add(building);
+    }
+
+    for (int b = 0; b < this.buildings.numObjs; b++) {
+      Building building = (Building) this.buildings.objs[b];
+      double contactRate = this.contactRates[building.getActivityMapping().ordinal()];
+      if (contactRate <= 0) {
+        continue;
+      }
+      double probability = 1 - Math.pow(1 - contactRate, (double) building.countInfectiousHumans() * elapsed);
+      // humans of the aggregated camps meet the infection at the facilities they use too
+      if (this.hybridPopulation != null) {
+        this.hybridPopulation.exposeAtFacility(building, probability, currentStep, this.random);
+      }
+      if (building.countHumans(HealthStatus.SUSCEPTIBLE) == 0) {
+        continue;
+      }
+      if (this.aggregated) {
+        infectAggregated(building, probability, this.random);
+      } else {
+        infectEach(building, probability, this.random);
+      }
+    }
+  }
+
+  // one draw per susceptible; the newly exposed are not infectious yet, so the
+  // probability holds for the whole building; the susceptible come first and an
+  // infected one swaps with the last of them, so walking them backwards only
+  // ever brings an already visited human into the current slot
+  static void infectEach(Building building, double probability, RandomStream random) {
+    for (int h = building.countHumans(HealthStatus.SUSCEPTIBLE) - 1; h >= 0; h--) {
+      if (random.nextDouble() < probability) {
+        building.getSusceptibleHuman(h).infected();
+      }
+    }
+  }
+
+  // how many get infected is drawn at once, then the victims among the
+  // susceptible humans, who come first in the building; an infected victim
+  // leaves that prefix, so the next draw is among those left
+  static void infectAggregated(Building building, double probability, RandomStream random) {
+    int infections = random.nextBinomial(building.countHumans(HealthStatus.SUSCEPTIBLE), probability);
+    for (int i = 0; i < infections; i++) {
+      int susceptible = building.countHumans(HealthStatus.SUSCEPTIBLE);
+      building.getSusceptibleHuman(random.nextInt(susceptible)).infected();
+    }
+  }
+
+}
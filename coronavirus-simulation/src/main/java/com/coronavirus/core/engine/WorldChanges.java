@@ -0,0 +1,104 @@
+package com.coronavirus.core.engine;
+
+import java.io.Serializable;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Human;
+
+import sim.util.Bag;
+
+/**
+ * Changes a human makes to state shared with other humans: occupancy of the
+ * buildings, the location in the continuous field, the patients of the health
+ * centers and the visit statistics. Immediate changes are applied at once;
+ * deferred changes are recorded while the humans decide in parallel and
+ * applied later, in a fixed order, by {@link #commit()}.
+ */
+public class WorldChanges implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final CoronaVirus coronaVirus;
+  private final boolean deferred;
+  // human, from, to - three entries per move
+  private final Bag moves;
+  private final Bag patientsAdded;
+  private final Bag patientsRemoved;
+  private int visitsToMedicalCenter;
+
+  public WorldChanges(CoronaVirus coronaVirus, boolean deferred) {
+    this.coronaVirus = coronaVirus;
+    this.deferred = deferred;
+    this.moves = new Bag();
+    this.patientsAdded = new Bag();
+    this.patientsRemoved = new Bag();
+    this.visitsToMedicalCenter = 0;
+  }
+
+  public void moveHuman(Human human, Building from, Building to) {
+    if (this.deferred) {
+      this.moves.add(human);
+      this.moves.add(from);
+      this.moves.add(to);
+    } else {
+      this.applyMove(human, from, to);
+    }
+  }
+
+  public void addPatient(Building healthCenter) {
+    if (this.deferred) {
+      this.patientsAdded.add(healthCenter);
+    } else {
+      healthCenter.addPatient();
+    }
+  }
+
+  public void removePatient(Building healthCenter) {
+    if (this.deferred) {
+      this.patientsRemoved.add(healthCenter);
+    } else {
+      healthCenter.removePatient();
+    }
+  }
+
+  public void addVisitToMedicalCenter() {
+    if (this.deferred) {
+      this.visitsToMedicalCenter++;
+    } else {
+      this.coronaVirus.addVisitToMedicalCenter();
+    }
+  }
+
+  // apply the recorded changes in the order they were made
+  public void commit() {
+    for (int i = 0; i < this.moves.numObjs; i += 3) {
+      this.applyMove((Human) this.moves.objs[i], (Building) this.moves.objs[i + 1],
+          (Building) this.moves.objs[i + 2]);
+    }
+    for (int i = 0; i < this.patientsRemoved.numObjs; i++) {
+      ((Building) this.patientsRemoved.objs[i]).removePatient();
+    }
+    for (int i = 0; i < this.patientsAdded.numObjs; i++) {
+      ((Building) this.patientsAdded.objs[i]).addPatient();
+    }
+    for (int i = 0; i < this.visitsToMedicalCenter; i++) {
+      this.coronaVirus.addVisitToMedicalCenter();
+    }
+    this.moves.clear();
+    this.patientsRemoved.clear();
+    this.patientsAdded.clear();
+    this.visitsToMedicalCenter = 0;
+  }
+
+  // either building is null for a human setting off on or arriving from a trip
+  private void applyMove(Human human, Building from, Building to) {
+    if (from != null) {
+      from.removeRefugee(human);
+    }
+    if (to != null) {
+      to.addRefugee(human);
+      this.coronaVirus.allHumans.setObjectLocation(human, human.getLocationIn(to));
+    }
+  }
+
+}
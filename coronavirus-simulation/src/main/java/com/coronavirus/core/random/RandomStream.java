@@ -0,0 +1,82 @@
+package com.coronavirus.core.random;
+
+import java.io.Serializable;
+
+/**
+ * Small SplitMix64 generator. A stream is owned by a single agent or
+ * subsystem, so it takes no locks; independent streams are obtained with
+ * {@link #split(long)} or from {@link RandomStreams}.
+ */
+public class RandomStream implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+  private long state;
+
+  public RandomStream(long seed) {
+    this.state = seed;
+  }
+
+  public long nextLong() {
+    this.state += GOLDEN_GAMMA;
+    return mix(this.state);
+  }
+
+  // uniform in [0, 1)
+  public double nextDouble() {
+    return (this.nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  // uniform in [0, n)
+  public int nextInt(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("n must be positive, got: " + n);
+    }
+    int bits;
+    int value;
+    do {
+      bits = (int) (this.nextLong() >>> 33);
+      value = bits % n;
+    } while (bits - value + (n - 1) < 0);
+    return value;
+  }
+
+  // successes in n trials of probability p, skipping from one success to the
+  // next with geometric draws, so it costs one draw per success plus one
+  public int nextBinomial(int n, double p) {
+    if (p <= 0 || n <= 0) {
+      return 0;
+    } else if (p >= 1) {
+      return n;
+    }
+    // log1p keeps the precision of small p; the skip is capped before adding,
+    // since a tiny p makes it infinite
+    double logFailure = Math.log1p(-p);
+    int successes = 0;
+    long trial = 0;
+    while (true) {
+      long skip = (long) (Math.log(1 - this.nextDouble()) / logFailure);
+      if (skip >= n - trial) {
+        return successes;
+      }
+      trial += skip + 1;
+      successes++;
+    }
+  }
+
+  public boolean nextBoolean() {
+    return this.nextLong() < 0;
+  }
+
+  // a new stream identified by the key, without advancing this one
+  public RandomStream split(long key) {
+    return new RandomStream(mix(this.state ^ mix(key + GOLDEN_GAMMA)));
+  }
+
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+}
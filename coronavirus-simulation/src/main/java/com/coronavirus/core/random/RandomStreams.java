@@ -0,0 +1,35 @@
+package com.coronavirus.core.random;
+
+import java.io.Serializable;
+
+/**
+ * Derives the random streams of a run from the simulation seed: one per
+ * human, identified by its index in the population, and one per subsystem.
+ * The same seed always yields the same streams, whatever the order or the
+ * thread in which they are used.
+ */
+public class RandomStreams implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public enum Subsystem {
+    HUMANS, CLIMATE, TRANSMISSION
+  }
+
+  private final RandomStream root;
+  private final RandomStream humans;
+
+  public RandomStreams(long seed) {
+    this.root = new RandomStream(seed);
+    this.humans = this.root.split(Subsystem.HUMANS.ordinal());
+  }
+
+  public RandomStream forHuman(int index) {
+    return this.humans.split(index);
+  }
+
+  public RandomStream forSubsystem(Subsystem subsystem) {
+    return this.root.split(subsystem.ordinal());
+  }
+
+}
@@ -1,6 +1,7 @@
 package com.coronavirus.core.report;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.logging.Level;
@@ -14,7 +15,7 @@ import sim.engine.Steppable;
 
 public class CoronaVirusReport implements Steppable {
 
-  public static final int ORDERING = 3;
+  public static final int ORDERING = 4;
   private static final long serialVersionUID = 1L;
   // file names
   private static final String CLIMATE_FILE_NAME = "climate.csv";
@@ -25,6 +26,8 @@ public class CoronaVirusReport implements Steppable {
   private static final String HEALTH_CENTER_STATE_FILE_NAME = "health-center-state.csv";
 
   private CoronaVirus coronaVirus;
+  // where the files go, the working directory when null
+  private File outputDirectory;
   // temperature and precipitation statistics
   private BufferedWriter bufferedClimateWriter;
   private CSVWriter csvClimateWriter;
@@ -44,6 +47,7 @@ public class CoronaVirusReport implements Steppable {
 
   public CoronaVirusReport(CoronaVirus coronaVirus) {
     this.coronaVirus = coronaVirus;
+    this.outputDirectory = coronaVirus.getOutputDirectory();
     this.buildHeaders();
   }
 
@@ -51,7 +55,7 @@ public class CoronaVirusReport implements Steppable {
     this.coronaVirus = (CoronaVirus) state;
 
     // near midnight generate results
-    if (this.coronaVirus.schedule.getSteps() % 1440 == 1439) {
+    if (this.coronaVirus.schedule.getTime() % 1440 == 1439) {
       this.writeClimateStatistics();
       this.writeHumanHealthStatistics();
       this.writeHealthCenterStateStatistics();
@@ -124,25 +128,29 @@ public class CoronaVirusReport implements Steppable {
   }
 
   private void createFiles() throws IOException {
-    this.bufferedClimateWriter = new BufferedWriter(new FileWriter(CLIMATE_FILE_NAME));
+    this.bufferedClimateWriter = new BufferedWriter(this.openFile(CLIMATE_FILE_NAME));
     this.csvClimateWriter = new CSVWriter(bufferedClimateWriter);
 
-    this.bufferedMosquitoStateWriter = new BufferedWriter(new FileWriter(MOSQUITO_STATE_FILE_NAME));
+    this.bufferedMosquitoStateWriter = new BufferedWriter(this.openFile(MOSQUITO_STATE_FILE_NAME));
     this.csvMosquitoStatehWriter = new CSVWriter(bufferedMosquitoStateWriter);
 
-    this.bufferedEggsStatesWriter = new BufferedWriter(new FileWriter(EGGS_STATE_FILE_NAME));
+    this.bufferedEggsStatesWriter = new BufferedWriter(this.openFile(EGGS_STATE_FILE_NAME));
     this.csvEggsStatesWriter = new CSVWriter(bufferedEggsStatesWriter);
 
-    this.bufferedMosquitoHealthWriter = new BufferedWriter(new FileWriter(MOSQUITO_HEALTH_FILE_NAME));
+    this.bufferedMosquitoHealthWriter = new BufferedWriter(this.openFile(MOSQUITO_HEALTH_FILE_NAME));
     this.csvMosquitoHealthWriter = new CSVWriter(bufferedMosquitoHealthWriter);
 
-    this.bufferedHumanHealthWriter = new BufferedWriter(new FileWriter(HUMAN_HEALTH_FILE_NAME));
+    this.bufferedHumanHealthWriter = new BufferedWriter(this.openFile(HUMAN_HEALTH_FILE_NAME));
     this.csvHumanHealthWriter = new CSVWriter(bufferedHumanHealthWriter);
 
-    this.bufferedHealthCenterStateWriter = new BufferedWriter(new FileWriter(HEALTH_CENTER_STATE_FILE_NAME));
+    this.bufferedHealthCenterStateWriter = new BufferedWriter(this.openFile(HEALTH_CENTER_STATE_FILE_NAME));
     this.csvHealthCenterStateWriter = new CSVWriter(bufferedHealthCenterStateWriter);
   }
 
+  private FileWriter openFile(String fileName) throws IOException {
+    return new FileWriter(new File(this.outputDirectory, fileName));
+  }
+
   private void buildHeaders() {
     try {
       this.createFiles();
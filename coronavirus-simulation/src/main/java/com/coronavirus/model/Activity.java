@@ -1,21 +1,25 @@
 package com.coronavirus.model;
 
 import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.algorithms.NearestFacilityTable;
 import com.coronavirus.core.algorithms.TimeManager;
+import com.coronavirus.core.random.RandomStream;
 import com.coronavirus.model.enumeration.ActivityMapping;
 
-import ec.util.MersenneTwisterFast;
 import sim.util.Bag;
 
 public class Activity {
 
-  private MersenneTwisterFast random;
+  // humans only leave home for an activity within this window (minute of day)
+  public static final int LEAVING_HOME_START = 8 * 60;
+  public static final int LEAVING_HOME_END = 18 * 60;
+  private RandomStream random;
   private Human human;
   private TimeManager time;
   private int currentStep;
   private int minuteInDay;
 
-  public Activity(Human human, TimeManager time, MersenneTwisterFast random, int currentStep, int minuteInDay) {
+  public Activity(Human human, TimeManager time, RandomStream random, int currentStep, int minuteInDay) {
     this.random = random;
     this.human = human;
     this.time = time;
@@ -33,56 +37,50 @@ public class Activity {
   }
 
   private ActivityMapping defineActivitiesAccordingToSomeCriterion(CoronaVirus yellowFever) {
-    synchronized (this.random) {
-      if (this.minuteInDay >= (8 * 60) && this.minuteInDay <= (18 * 60)) {
-        if (time.currentDayInWeek(currentStep) < 6) {
-          double probability = yellowFever.getParams().getGlobal().getProbabilityOfHumanLeavingLateFromHome();
-          if (probability >= this.random.nextDouble()) { // 1% chance stay home
-            return ActivityMapping.STAY_HOME;
-          } else if (this.human.isWorker()) {
-            return ActivityMapping.WORK;
-          } else if (this.human.isStudent()) {
-            return this.everydayActivitiesForStudents();
-          } else {
-            return this.differentActivities();
-          }
+    if (this.minuteInDay >= LEAVING_HOME_START && this.minuteInDay <= LEAVING_HOME_END) {
+      if (time.currentDayInWeek(currentStep) < 6) {
+        double probability = yellowFever.getParams().getGlobal().getProbabilityOfHumanLeavingLateFromHome();
+        if (probability >= this.random.nextDouble()) { // 1% chance stay home
+          return ActivityMapping.STAY_HOME;
+        } else if (this.human.isWorker()) {
+          return ActivityMapping.WORK;
+        } else if (this.human.isStudent()) {
+          return this.everydayActivitiesForStudents();
         } else {
-          return differentActivities();
+          return this.differentActivities();
         }
+      } else {
+        return differentActivities();
       }
-      return ActivityMapping.STAY_HOME;
     }
+    return ActivityMapping.STAY_HOME;
   }
 
   public ActivityMapping everydayActivitiesForStudents() {
-    synchronized (this.random) {
-      if (this.minuteInDay >= (8 * 60) && this.minuteInDay <= (12 * 60)) {
-        return ActivityMapping.SCHOOL;
-      } else if (0.5 >= this.random.nextDouble()) { // 50% chance
-        if (0.4 >= this.random.nextDouble()) // 40% chance
-          return ActivityMapping.SOCIAL_VISIT;
-        else if (0.3 >= this.random.nextDouble()) // 30% chance
-          return ActivityMapping.RELIGION_ACTIVITY;
-        else
-          return ActivityMapping.MARKET;
-      }
-      return ActivityMapping.STAY_HOME;
+    if (this.minuteInDay >= (8 * 60) && this.minuteInDay <= (12 * 60)) {
+      return ActivityMapping.SCHOOL;
+    } else if (0.5 >= this.random.nextDouble()) { // 50% chance
+      if (0.4 >= this.random.nextDouble()) // 40% chance
+        return ActivityMapping.SOCIAL_VISIT;
+      else if (0.3 >= this.random.nextDouble()) // 30% chance
+        return ActivityMapping.RELIGION_ACTIVITY;
+      else
+        return ActivityMapping.MARKET;
     }
+    return ActivityMapping.STAY_HOME;
   }
 
   public ActivityMapping differentActivities() {
-    synchronized (this.random) {
-      if (0.8 >= this.random.nextDouble()) { // 80% chance
-        if (0.4 >= this.random.nextDouble()) { // 40% chance
-          return ActivityMapping.SOCIAL_VISIT;
-        } else if (0.3 >= this.random.nextDouble()) { // 30% chance
-          return ActivityMapping.RELIGION_ACTIVITY;
-        } else {
-          return ActivityMapping.MARKET;
-        }
-      } else { // 20% chance of home activity
-        return ActivityMapping.STAY_HOME;
+    if (0.8 >= this.random.nextDouble()) { // 80% chance
+      if (0.4 >= this.random.nextDouble()) { // 40% chance
+        return ActivityMapping.SOCIAL_VISIT;
+      } else if (0.3 >= this.random.nextDouble()) { // 30% chance
+        return ActivityMapping.RELIGION_ACTIVITY;
+      } else {
+        return ActivityMapping.MARKET;
       }
+    } else { // 20% chance of home activity
+      return ActivityMapping.STAY_HOME;
     }
   }
 
@@ -91,15 +89,15 @@ public class Activity {
     case STAY_HOME:
       return human.getHome();
     case WORK:
-      return betstLocation(human.getHome(), d.getWorks(), d);
+      return nearestLocation(human.getHome(), ActivityMapping.WORK, d.getWorks(), d);
     case SCHOOL:
-      return betstLocation(human.getHome(), d.getSchooles(), d);
+      return nearestLocation(human.getHome(), ActivityMapping.SCHOOL, d.getSchooles(), d);
     case RELIGION_ACTIVITY:
-      return betstLocation(human.getHome(), d.getMosques(), d);
+      return nearestLocation(human.getHome(), ActivityMapping.RELIGION_ACTIVITY, d.getMosques(), d);
     case MARKET:
-      return betstLocation(human.getHome(), d.getMarket(), d);
+      return nearestLocation(human.getHome(), ActivityMapping.MARKET, d.getMarket(), d);
     case HEALTH_CENTER:
-      return betstLocation(human.getHome(), d.getHealthCenters(), d);
+      return nearestLocation(human.getHome(), ActivityMapping.HEALTH_CENTER, d.getHealthCenters(), d);
     case SOCIAL_VISIT:
       return socialize(human, d);
     default:
@@ -127,27 +125,19 @@ public class Activity {
       break;
     case SOCIAL_VISIT:
       // maximum time up to 8 hours
-      synchronized (this.random) {
-        period = minimumStay + this.random.nextInt(8 * MINUTE);
-      }
+      period = minimumStay + this.random.nextInt(8 * MINUTE);
       break;
     case RELIGION_ACTIVITY:
       // maximum time up to 4 hours
-      synchronized (this.random) {
-        period = minimumStay + this.random.nextInt(4 * MINUTE);
-      }
+      period = minimumStay + this.random.nextInt(4 * MINUTE);
       break;
     case MARKET:
       // maximum time up to 2 hours
-      synchronized (this.random) {
-        period = minimumStay + this.random.nextInt(2 * MINUTE);
-      }
+      period = minimumStay + this.random.nextInt(2 * MINUTE);
       break;
     case HEALTH_CENTER:
       // maximum time up to 24 hours
-      synchronized (this.random) {
-        period = 4 + this.random.nextInt(20 * MINUTE);
-      }
+      period = 4 + this.random.nextInt(20 * MINUTE);
       break;
     }
     return (period + this.minuteInDay);
@@ -164,6 +154,15 @@ public class Activity {
     }
   }
 
+  // read from the table built with the world, homes outside it search the facilities
+  private Building nearestLocation(Building home, ActivityMapping activityMapping, Bag fieldBag, CoronaVirus d) {
+    NearestFacilityTable nearestFacilities = d.getNearestFacilities();
+    if (nearestFacilities != null && nearestFacilities.contains(home, activityMapping)) {
+      return nearestFacilities.getNearest(home, activityMapping, this.random);
+    }
+    return betstLocation(home, fieldBag, d);
+  }
+
   private Building betstLocation(Building fLoc, Bag fieldBag, CoronaVirus yellowFever) {
     Bag newLoc = new Bag();
     double bestScoreSoFar = Double.POSITIVE_INFINITY;
@@ -173,7 +172,7 @@ public class Activity {
       if (fScore > bestScoreSoFar) {
         continue;
       }
-      if (fScore <= bestScoreSoFar) {
+      if (fScore < bestScoreSoFar) {
         bestScoreSoFar = fScore;
         newLoc.clear();
       }
@@ -183,7 +182,7 @@ public class Activity {
     if (newLoc != null) {
       int winningIndex = 0;
       if (newLoc.numObjs >= 1) {
-        winningIndex = yellowFever.random.nextInt(newLoc.numObjs);
+        winningIndex = this.random.nextInt(newLoc.numObjs);
       }
       // System.out.println("other" + newLoc.numObjs);
       f = (Building) newLoc.objs[winningIndex];
@@ -225,7 +224,7 @@ public class Activity {
       return xmove;
     } else if (xmoveToRoad == ymoveToRoad) {
       // equally good moves: pick randomly between them
-      if (yellowFever.random.nextBoolean()) {
+      if (this.random.nextBoolean()) {
         return xmove;
       } else {
         return ymove;
@@ -244,35 +243,31 @@ public class Activity {
   }
 
   private Building socialize(Human ref, CoronaVirus yellowFever) {
-    Bag potential = new Bag();
-    Building newLocation = null;
-    potential.clear();
-    int camp = ref.getHome().getCampID(); // get camp id
-    // select any camp site but not the camp that belong to the agent
-    for (Object campsite : yellowFever.getFamilyHousing()) {
-      Building cmp = ((Building) campsite);
-      if (cmp.getCampID() == camp && cmp.equals(ref.getHome()) != true && cmp.getRefugeeHH().numObjs > 0) {
-        potential.add(cmp); // potential locations to visit
+    // a relative still living in their house, when preferred
+    if (yellowFever.getParams().getGlobal().isVisitRelatives()) {
+      Bag relatives = ref.getFamily().getRelativesLocation();
+      if (relatives.numObjs > 0) {
+        Building relative = (Building) relatives.objs[this.random.nextInt(relatives.numObjs)];
+        if (relative.getRefugeeHH().numObjs > 0 && !relative.equals(ref.getHome())) {
+          return relative;
+        }
       }
     }
-
-    if (potential.numObjs == 1) {
-      newLocation = (Building) potential.objs[0];
-    } else {
-      newLocation = (Building) potential.objs[yellowFever.random.nextInt(potential.numObjs)];
+    // otherwise any occupied camp site of the camp but the one that belong to the agent
+    int camp = ref.getHome().getCampID(); // get camp id
+    Building newLocation = yellowFever.getOccupiedHousing().randomOther(camp, ref.getHome(), this.random);
+    if (newLocation == null) {
+      return ref.getHome();
     }
-
     return newLocation;
   }
 
   private boolean gettingMedicalHelp(CoronaVirus yellowFever) {
-    synchronized (this.random) {
-      double probability = yellowFever.getParams().getGlobal().getProbabilityToGoGettingMedicalHelp();
-      if (this.human.hasSymptomsOfInfection() && !this.human.getReceivedTreatment())
-        if (probability >= this.random.nextDouble())
-          return true;
-      return false;
-    }
+    double probability = yellowFever.getParams().getGlobal().getProbabilityToGoGettingMedicalHelp();
+    if (this.human.hasSymptomsOfInfection() && !this.human.getReceivedTreatment())
+      if (probability >= this.random.nextDouble())
+        return true;
+    return false;
   }
 
   public Human getRefugee() {
@@ -3,6 +3,8 @@ package com.coronavirus.model;
 import java.io.Serializable;
 
 import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.model.enumeration.ActivityMapping;
+import com.coronavirus.model.enumeration.HealthStatus;
 
 import sim.util.Bag;
 import sim.util.Valuable;
@@ -12,7 +14,8 @@ public class Building implements Valuable, Serializable {
   private static final long serialVersionUID = 1L;
   private Facility facility;
   private Bag refugeeHH; // camp location for household
-  private Bag humans; // who are on the field right now
+  private Bag humans; // who are on the field right now, the susceptible ones first
+  private int[] healthStatusCounts; // humans on the field in each health status, by ordinal
   private int fieldID; // identify the type pf the field
   private int campID; // holds id of the three camps
   private double water; // hold water amount
@@ -25,19 +28,27 @@ public class Building implements Valuable, Serializable {
   private int locationX;
   private int locationY;
   private int patientCounter;
+  private int occupiedSlot; // position among the occupied housing of the camp
+  private ActivityMapping activityMapping; // activity whose contacts happen here, null for none
+  private int exposureStep; // last step at which the transmission visited this building
+  private int plannedFamilies; // families of an aggregated camp, moving in when it is expanded
 
   public Building() {
     this.refugeeHH = new Bag();
     this.humans = new Bag();
+    this.healthStatusCounts = new int[HealthStatus.values().length];
     this.timeOfMaturation = 0;
     this.amountOfResources = 0;
     this.quantityOfVaccines = 0;
     this.water = 0;
     this.patientCounter = 0;
+    this.occupiedSlot = OccupiedHousing.NOT_OCCUPIED;
+    this.exposureStep = -1;
   }
 
   public Building(int x, int y) {
     this.humans = new Bag();
+    this.healthStatusCounts = new int[HealthStatus.values().length];
     this.refugeeHH = new Bag();
     this.locationX = x;
     this.locationY = y;
@@ -46,11 +57,14 @@ public class Building implements Valuable, Serializable {
     this.quantityOfVaccines = 0;
     this.water = 0;
     this.patientCounter = 0;
+    this.occupiedSlot = OccupiedHousing.NOT_OCCUPIED;
+    this.exposureStep = -1;
   }
 
   // check how many familes can occupied in a field
   public synchronized boolean isCampOccupied(CoronaVirus dadaab) {
-    if (this.getRefugeeHH().size() >= dadaab.getParams().getGlobal().getMaximumFamilyOccumpancyPerBuilding()) {
+    if (this.getRefugeeHH().size() + this.plannedFamilies >= dadaab.getParams().getGlobal()
+        .getMaximumFamilyOccumpancyPerBuilding()) {
       return true;
     } else {
       return false;
@@ -104,7 +118,11 @@ public class Building implements Valuable, Serializable {
   }
 
   public void setRefugee(Bag humans) {
-    this.humans = humans;
+    this.humans = new Bag();
+    this.healthStatusCounts = new int[HealthStatus.values().length];
+    for (int i = 0; i < humans.numObjs; i++) {
+      this.addRefugee((Human) humans.objs[i]);
+    }
   }
 
   public Bag getHumans() {
@@ -112,11 +130,66 @@ public class Building implements Valuable, Serializable {
   }
 
   public void addRefugee(Human r) {
+    r.setOccupancy(this, this.humans.numObjs);
     this.humans.add(r);
+    if (HealthStatus.SUSCEPTIBLE.equals(r.getCurrentHealthStatus())) {
+      this.swapHumans(r.getOccupiedSlot(), this.countHumans(HealthStatus.SUSCEPTIBLE));
+    }
+    this.healthStatusCounts[r.getCurrentHealthStatus().ordinal()]++;
   }
 
+  // the last human takes the place of the removed one
   public void removeRefugee(Human r) {
-    this.humans.remove(r);
+    if (r.getOccupiedBuilding() != this) {
+      return;
+    }
+    if (HealthStatus.SUSCEPTIBLE.equals(r.getCurrentHealthStatus())) {
+      this.swapHumans(r.getOccupiedSlot(), this.countHumans(HealthStatus.SUSCEPTIBLE) - 1);
+    }
+    this.healthStatusCounts[r.getCurrentHealthStatus().ordinal()]--;
+    int slot = r.getOccupiedSlot();
+    this.humans.remove(slot);
+    if (slot < this.humans.numObjs) {
+      ((Human) this.humans.objs[slot]).setOccupancy(this, slot);
+    }
+    r.setOccupancy(null, 0);
+  }
+
+  // a human on the field changed health status, moving across the end of the susceptible ones
+  void changeHealthStatus(Human r, HealthStatus previous, HealthStatus next) {
+    if (HealthStatus.SUSCEPTIBLE.equals(previous)) {
+      this.swapHumans(r.getOccupiedSlot(), this.countHumans(HealthStatus.SUSCEPTIBLE) - 1);
+    } else if (HealthStatus.SUSCEPTIBLE.equals(next)) {
+      this.swapHumans(r.getOccupiedSlot(), this.countHumans(HealthStatus.SUSCEPTIBLE));
+    }
+    this.healthStatusCounts[previous.ordinal()]--;
+    this.healthStatusCounts[next.ordinal()]++;
+  }
+
+  private void swapHumans(int i, int j) {
+    if (i == j) {
+      return;
+    }
+    Human first = (Human) this.humans.objs[i];
+    Human second = (Human) this.humans.objs[j];
+    this.humans.objs[i] = second;
+    this.humans.objs[j] = first;
+    second.setOccupancy(this, i);
+    first.setOccupancy(this, j);
+  }
+
+  // the i-th susceptible human on the field, i below countHumans(SUSCEPTIBLE)
+  public Human getSusceptibleHuman(int i) {
+    return (Human) this.humans.objs[i];
+  }
+
+  public int countHumans(HealthStatus healthStatus) {
+    return this.healthStatusCounts[healthStatus.ordinal()];
+  }
+
+  public int countInfectiousHumans() {
+    return this.countHumans(HealthStatus.MILD_INFECTION) + this.countHumans(HealthStatus.SEVERE_INFECTION)
+        + this.countHumans(HealthStatus.TOXIC_INFECTION);
   }
 
   public void setFieldID(int id) {
@@ -249,4 +322,40 @@ public class Building implements Valuable, Serializable {
     return patientCounter;
   }
 
-}
\ No newline at end of file
+  public int getOccupiedSlot() {
+    return occupiedSlot;
+  }
+
+  public void setOccupiedSlot(int occupiedSlot) {
+    this.occupiedSlot = occupiedSlot;
+  }
+
+  public ActivityMapping getActivityMapping() {
+    return activityMapping;
+  }
+
+  public void setActivityMapping(ActivityMapping activityMapping) {
+    this.activityMapping = activityMapping;
+  }
+
+  public int getExposureStep() {
+    return exposureStep;
+  }
+
+  public void setExposureStep(int exposureStep) {
+    this.exposureStep = exposureStep;
+  }
+
+  public int getPlannedFamilies() {
+    return plannedFamilies;
+  }
+
+  public void addPlannedFamily() {
+    this.plannedFamilies++;
+  }
+
+  public void removePlannedFamily() {
+    this.plannedFamilies--;
+  }
+
+}
@@ -7,6 +7,7 @@ public class Family {
   private Bag relatives; // hold relative location
   private Building location; // location of the house
   private Bag members; // holds the family members
+  private int slot; // position in the bag of all families
 
   public Family(Building loc) {
     this.setLocation(loc);
@@ -26,6 +27,9 @@ public class Family {
   // holds memebers of the family
   public void setMembers(Bag members) {
     this.members = members;
+    for (int i = 0; i < members.numObjs; i++) {
+      ((Human) members.objs[i]).setFamilySlot(i);
+    }
   }
 
   public Bag getMembers() {
@@ -33,11 +37,25 @@ public class Family {
   }
 
   public void addMembers(Human human) {
+    human.setFamilySlot(this.members.numObjs);
     this.members.add(human);
   }
 
+  // the last member takes the place of the removed one
   public void removeMembers(Human human) {
-    this.members.remove(human);
+    int slot = human.getFamilySlot();
+    this.members.remove(slot);
+    if (slot < this.members.numObjs) {
+      ((Human) this.members.objs[slot]).setFamilySlot(slot);
+    }
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  public void setSlot(int slot) {
+    this.slot = slot;
   }
 
   // location of the relative
@@ -1,17 +1,19 @@
 package com.coronavirus.model;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 
 import com.coronavirus.core.Node;
 import com.coronavirus.core.CoronaVirus;
-import com.coronavirus.core.algorithms.AStar;
+import com.coronavirus.core.algorithms.Route;
 import com.coronavirus.core.algorithms.TimeManager;
+import com.coronavirus.core.disease.DiseaseCalendar;
+import com.coronavirus.core.engine.WorldChanges;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.core.random.RandomStreams;
 import com.coronavirus.model.enumeration.ActivityMapping;
 import com.coronavirus.model.enumeration.HealthStatus;
 import com.coronavirus.model.enumeration.Sex;
 
-import ec.util.MersenneTwisterFast;
 import sim.engine.SimState;
 import sim.engine.Steppable;
 import sim.engine.Stoppable;
@@ -22,62 +24,63 @@ import sim.util.Valuable;
 public class Human implements Steppable, Valuable, Serializable {
 
   private static final long serialVersionUID = 1L;
-  public static final int ORDERING = 2;
+  public static final int ORDERING = 3;
+  public static final int VACCINE_EFFECT_DELAY = 7; // days, one week
   protected Stoppable stopper;
   private CoronaVirus coronaVirus;
-  private ArrayList<Building> path;
-  private MersenneTwisterFast random;
+  // shared route to the goal, walked step by step; the goal follows its last step
+  private Route route;
+  private Building routeGoal;
+  private int routeCursor;
+  // trip-time movement: on the way to the goal until the arrival step
+  private boolean inTransit;
+  private int arrivalStep;
+  private RandomStream random;
   private TimeManager time;
-  private HealthStatus currentHealthStatus;
-  private HealthStatus previousHealthStatus;
+  // health state, position, goal, staying time and period counters
+  private Population population;
+  private int index;
+  // where changes to shared state go, immediate unless stepped in parallel
+  private WorldChanges worldChanges;
   private Family family;
+  private int familySlot; // position among the members of the family
+  private Building occupiedBuilding; // where this human is counted, null on the way
+  private int occupiedSlot; // position among the humans of that building
   private ActivityMapping currentActivity;
-  private Building currentPosition;
-  private Building home;
-  private Building goal;
   private int minuteInDay;
   private boolean isWorker;
   private boolean isStudent;
   private int currentStep;
   private double jitterX;
   private double jitterY;
-  private int stayingTime;
   private int age;
   private Sex sex;
   private boolean receivedTreatment;
   private boolean vaccinated;
-  private int incubationPeriod;
-  private int infectionPeriod;
-  private int toxicPeriod;
-  private int delayForVaccineEffect;
-  private boolean serious;
-  private int currentDay;
   private boolean dead;
 
-  public Human(int age, Sex sex, Family family, Building home, Building position, MersenneTwisterFast random,
-      Continuous2D allHumans) {
+  public Human(int age, Sex sex, Family family, Building home, Building position, RandomStreams streams,
+      Continuous2D allHumans, Population population) {
+    this.population = population;
+    this.index = population.add(this);
     this.setAge(age);
     this.setSex(sex);
     this.setFamily(family);
     this.setHome(home);
     this.setGoal(home);
-    this.time = new TimeManager();
-    this.random = new MersenneTwisterFast();
-    this.jitterX = random.nextDouble();
-    this.jitterY = random.nextDouble();
-    this.currentPosition = position;
+    this.time = population.getTime();
+    // every human draws from its own stream, derived from the seed and its index
+    this.random = streams.forHuman(this.index);
+    this.jitterX = this.random.nextDouble();
+    this.jitterY = this.random.nextDouble();
+    this.setCurrentPosition(position);
     this.coronaVirus = null;
-    this.path = null;
-    this.previousHealthStatus = HealthStatus.SUSCEPTIBLE;
+    this.route = null;
+    this.setPreviousHealthStatus(HealthStatus.SUSCEPTIBLE);
     this.minuteInDay = 0;
     this.currentStep = 0;
     this.receivedTreatment = false;
     this.vaccinated = false;
-    this.incubationPeriod = 0;
-    this.infectionPeriod = 0;
-    this.toxicPeriod = 0;
-    this.delayForVaccineEffect = 0;
-    this.currentDay = 0;
     this.setObjectLocation(allHumans);
     this.dead = false;
   }
@@ -86,29 +89,26 @@ public class Human implements Steppable, Valuable, Serializable {
     if (this.dead)
       return;
     this.coronaVirus = (CoronaVirus) state;
-    this.currentStep = (int) coronaVirus.schedule.getSteps();
+    this.currentStep = (int) coronaVirus.schedule.getTime();
     if (this.currentStep < 1440) {
       this.minuteInDay = this.currentStep;
     } else {
       this.minuteInDay = this.currentStep % 1440;
     }
+    this.move(currentStep);
 
-    if (this.isNewDay()) {
-      this.setPreviousHealthStatus(this.getCurrentHealthStatus());
-      HealthStatus currentHealthStatus = this.currentHealthStatus;
-      if (HealthStatus.isHumanInfected(currentHealthStatus) || HealthStatus.isHumanExposed(currentHealthStatus)) {
-        this.checkCurrentStateOfInfection();
-      }
-
-      if (this.vaccinated) {
-        this.defineImmunityEvolution();
+    if (this.coronaVirus.isEventDriven()) {
+      if (this.coronaVirus.isSteppedInBatch()) {
+        // the population stepper skips this human until then
+        this.population.nextWakeUp[this.index] = this.nextWakeUp();
+      } else {
+        this.coronaVirus.schedule.scheduleOnce(this.nextWakeUp(), ORDERING, this);
       }
     }
-    this.move(currentStep);
   }
 
   public void move(int steps) {
-    Activity activity = new Activity(this, time, this.coronaVirus.random, currentStep, minuteInDay);
+    Activity activity = new Activity(this, time, this.random, currentStep, minuteInDay);
     // if you do not have goal then return
     if (this.getGoal() == null) {
       return;
@@ -121,30 +121,30 @@ public class Human implements Steppable, Valuable, Serializable {
       activity.doActivity(this.getCurrentActivity());
       this.calculateGoal();
     }
+    // or jump to it once the trip is over
+    else if (coronaVirus.getParams().getGlobal().isTripTimeMovement()) {
+      this.travel();
+    }
     // else move to your goal
     else {
       // make sure we have a path to the goal!
-      if (path == null || path.size() == 0) {
-        path = AStar.astarPath(coronaVirus,
-            (Node) coronaVirus.closestNodes.get(this.getCurrentPosition().getLocationX(),
-                this.getCurrentPosition().getLocationY()),
-            (Node) coronaVirus.closestNodes.get(this.getGoal().getLocationX(), this.getGoal().getLocationY()));
-        if (path != null) {
-          path.add(this.getGoal());
-        }
+      if (route == null || routeCursor > route.length()) {
+        route = this.findRoute();
+        routeGoal = this.getGoal();
+        routeCursor = 0;
       }
       Building subgoal;
-      if (path == null) {
+      if (route == null) {
         subgoal = this.getGoal();
       } // Otherwise we have a path and should continue to move along it
       else {
         // have we reached the end of an edge? If so, move to the next edge
-        if (path.get(0).equals(this.getCurrentPosition())) {
-          path.remove(0);
+        if (this.isOnRouteStep(routeCursor)) {
+          routeCursor++;
         }
         // our current subgoal is the end of the current edge
-        if (path.size() > 0) {
-          subgoal = path.get(0);
+        if (routeCursor <= route.length()) {
+          subgoal = this.getRouteStep(routeCursor);
         } else {
           subgoal = this.getGoal();
         }
@@ -152,32 +152,90 @@ public class Human implements Steppable, Valuable, Serializable {
 
       Building loc = activity.getNextTile(coronaVirus, subgoal, this.getCurrentPosition());
       Building oldLoc = this.getCurrentPosition();
-      oldLoc.removeRefugee(this);
       this.setCurrentPosition(loc);
-      loc.addRefugee(this);
-      coronaVirus.allHumans.setObjectLocation(this,
-          new Double2D(loc.getLocationX() + this.jitterX, loc.getLocationY() + jitterY));
+      this.getWorldChanges().moveHuman(this, oldLoc, loc);
+    }
+  }
+
+  private Route findRoute() {
+    return coronaVirus.getRouteCache().getRoute(
+        (Node) coronaVirus.closestNodes.get(this.getCurrentPosition().getLocationX(),
+            this.getCurrentPosition().getLocationY()),
+        (Node) coronaVirus.closestNodes.get(this.getGoal().getLocationX(), this.getGoal().getLocationY()));
+  }
+
+  // the whole trip is timed when it starts, nothing happens on the way
+  private void travel() {
+    if (!this.inTransit) {
+      this.inTransit = true;
+      this.arrivalStep = this.currentStep + this.tripTime();
+      if (coronaVirus.getParams().getGlobal().isInTransitState()) {
+        this.getWorldChanges().moveHuman(this, this.getCurrentPosition(), null);
+      }
+    }
+    if (this.currentStep >= this.arrivalStep) {
+      Building oldLoc = coronaVirus.getParams().getGlobal().isInTransitState() ? null : this.getCurrentPosition();
+      this.inTransit = false;
+      this.setCurrentPosition(this.getGoal());
+      this.getWorldChanges().moveHuman(this, oldLoc, this.getGoal());
     }
   }
 
+  // minutes it takes to walk one cell a minute along the route, as getNextTile does
+  private int tripTime() {
+    int x = this.getCurrentPosition().getLocationX();
+    int y = this.getCurrentPosition().getLocationY();
+    int minutes = 0;
+    Route route = this.findRoute();
+    if (route != null) {
+      int width = coronaVirus.allCamps.getWidth();
+      for (int i = 0; i < route.length(); i++) {
+        int cell = route.getCell(i);
+        minutes += Math.abs(Route.cellX(cell, width) - x) + Math.abs(Route.cellY(cell, width) - y);
+        x = Route.cellX(cell, width);
+        y = Route.cellY(cell, width);
+      }
+    }
+    minutes += Math.abs(this.getGoal().getLocationX() - x) + Math.abs(this.getGoal().getLocationY() - y);
+    return Math.max(1, minutes);
+  }
+
+  // the goal the route was taken for comes after its last step
+  private Building getRouteStep(int i) {
+    if (i < route.length()) {
+      int width = coronaVirus.allCamps.getWidth();
+      int cell = route.getCell(i);
+      return (Building) coronaVirus.allCamps.field[Route.cellX(cell, width)][Route.cellY(cell, width)];
+    }
+    return routeGoal;
+  }
+
+  private boolean isOnRouteStep(int i) {
+    if (i < route.length()) {
+      return route.getCell(i) == Route.cellOf(this.getCurrentPosition().getLocationX(),
+          this.getCurrentPosition().getLocationY(), coronaVirus.allCamps.getWidth());
+    }
+    return routeGoal.equals(this.getCurrentPosition());
+  }
+
   // assign the best goal
   public void calculateGoal() {
     // used to the define resources
     if (ActivityMapping.HEALTH_CENTER.equals(this.getCurrentActivity())) {
-      this.currentPosition.removePatient();
+      this.getWorldChanges().removePatient(this.getCurrentPosition());
     }
 
     if (this.getCurrentPosition().equals(this.getHome()) == true) {
-      Activity activity = new Activity(this, time, this.coronaVirus.random, currentStep, minuteInDay);
+      Activity activity = new Activity(this, time, this.random, currentStep, minuteInDay);
       ActivityMapping bestActivity = activity.defineActivity(this.coronaVirus);
       this.setGoal(activity.bestActivityLocation(this, this.getHome(), bestActivity, this.coronaVirus));
       // used to the define resources
       if (ActivityMapping.HEALTH_CENTER.equals(bestActivity)) {
-        if (this.getGoal().getFacility().isReachedCapacity(this.goal, this.coronaVirus)) {
+        if (this.getGoal().getFacility().isReachedCapacity(this.getGoal(), this.coronaVirus)) {
           bestActivity = ActivityMapping.STAY_HOME;
           this.setGoal(activity.bestActivityLocation(this, this.getHome(), bestActivity, this.coronaVirus));
         } else {
-          this.getGoal().addPatient();
+          this.getWorldChanges().addPatient(this.getGoal());
         }
       }
       // your selected activity
@@ -199,6 +257,37 @@ public class Human implements Steppable, Valuable, Serializable {
     }
   }
 
+  // event-driven mode: first step at which this agent can do anything other than
+  // wait (leave the goal, leave home, take the next tile or start a new day)
+  public int nextWakeUp() {
+    int nextStep = this.currentStep + 1;
+    int nextDay = this.time.startOfNextDay(this.currentStep);
+    int startOfDay = this.currentStep - this.minuteInDay;
+    if (this.getGoal() == null) {
+      return nextDay;
+    } else if (this.inTransit) {
+      return Math.max(this.arrivalStep, nextStep);
+    } else if (!this.getCurrentPosition().equals(this.getGoal())) {
+      // walking - one tile per step
+      return nextStep;
+    } else if (!this.getGoal().equals(this.getHome())) {
+      // waiting at the goal until the staying time is over
+      if (this.isStay()) {
+        return Math.min(startOfDay + this.getStayingTime(), nextDay);
+      }
+      return nextStep;
+    }
+    // at home - someone with symptoms may look for medical help at any time
+    if (this.hasSymptomsOfInfection() && !this.receivedTreatment) {
+      return nextStep;
+    } else if (this.minuteInDay < Activity.LEAVING_HOME_START) {
+      return startOfDay + Activity.LEAVING_HOME_START;
+    } else if (this.minuteInDay >= Activity.LEAVING_HOME_END) {
+      return nextDay;
+    }
+    return nextStep;
+  }
+
   // how long agent need to stay at location
   public boolean isStay() {
     if (this.minuteInDay < this.getStayingTime()) {
@@ -209,90 +298,70 @@ public class Human implements Steppable, Valuable, Serializable {
   }
 
   public void infected() {
-    if (!HealthStatus.SUSCEPTIBLE.equals(this.currentHealthStatus))
+    if (!HealthStatus.SUSCEPTIBLE.equals(this.getCurrentHealthStatus()))
       return;
-    this.defineIncubationPeriod();
-    this.currentHealthStatus = HealthStatus.EXPOSED;
-  }
-
-  private void checkCurrentStateOfInfection() {
-    this.defineInfection();
-    this.defineMildInfectionEvolution();
-    this.defineSevereInfectionEvolution();
-    this.defineToxicInfectionEvolution();
-  }
-
-  private void defineInfection() {
-    synchronized (this.random) {
-      double probability;
-      if (this.incubationPeriod == 0 && HealthStatus.EXPOSED.equals(this.currentHealthStatus)) {
-        probability = coronaVirus.getParams().getGlobal().getProbabilityOfMildInfection();
-        if (probability >= this.random.nextDouble()) {
-          this.setCurrentHealthStatus(HealthStatus.MILD_INFECTION);
-          this.definePeriodOfInfection();
-        } else {
-          this.setCurrentHealthStatus(HealthStatus.SEVERE_INFECTION);
-          this.definePeriodOfInfection();
-          probability = coronaVirus.getParams().getGlobal().getProbabilityFromSevereInfectionTotoxicInfection();
-          if (probability >= this.random.nextDouble()) {
-            this.serious = true;
-          } else {
-            this.serious = false;
-          }
-        }
-      } else if (this.incubationPeriod > 0 && HealthStatus.EXPOSED.equals(this.currentHealthStatus)) {
-        this.incubationPeriod--;
+    DiseaseCalendar calendar = this.population.getDiseaseCalendar();
+    this.setCurrentHealthStatus(
+        this.population.getDiseaseModel().infect(this.population, this.index, calendar.getNextDay(), this.random));
+    this.scheduleDiseaseExit();
+    this.population.activate(this.index);
+  }
+
+  // disease progression on a day the calendar has this human due, returns false
+  // once there is nothing left to evolve
+  public boolean progressDisease(CoronaVirus coronaVirus, int day) {
+    this.coronaVirus = coronaVirus;
+    HealthStatus currentHealthStatus = this.getCurrentHealthStatus();
+    if (HealthStatus.RECOVERED.equals(currentHealthStatus) || HealthStatus.DEAD.equals(currentHealthStatus)) {
+      return false;
+    }
+    if (this.population.diseaseExitDay[this.index] == day) {
+      this.setPreviousHealthStatus(currentHealthStatus);
+      HealthStatus nextHealthStatus = this.population.getDiseaseModel().transition(this.population, this.index,
+          day, this.random);
+      if (HealthStatus.DEAD.equals(nextHealthStatus)) {
+        this.die();
+        return false;
       }
+      this.setCurrentHealthStatus(nextHealthStatus);
+      this.scheduleDiseaseExit();
     }
-  }
-
-  private void defineMildInfectionEvolution() {
-    if (this.infectionPeriod == 0 && HealthStatus.MILD_INFECTION.equals(this.currentHealthStatus)) {
-      this.currentHealthStatus = HealthStatus.RECOVERED;
-    } else if (this.infectionPeriod > 0 && HealthStatus.MILD_INFECTION.equals(this.currentHealthStatus)) {
-      this.infectionPeriod--;
+    if (this.population.vaccineEffectDay[this.index] == day) {
+      this.population.vaccineEffectDay[this.index] = Population.NO_DAY;
+      if (HealthStatus.SUSCEPTIBLE.equals(this.getCurrentHealthStatus())) {
+        this.setPreviousHealthStatus(HealthStatus.SUSCEPTIBLE);
+        this.setCurrentHealthStatus(HealthStatus.RECOVERED);
+      }
     }
+    return !HealthStatus.RECOVERED.equals(this.getCurrentHealthStatus());
   }
 
-  private void defineSevereInfectionEvolution() {
-    if (this.serious && this.infectionPeriod == 0 && HealthStatus.SEVERE_INFECTION.equals(this.currentHealthStatus)) {
-      this.currentHealthStatus = HealthStatus.TOXIC_INFECTION;
-      this.definePeriodOfToxicInfection();
-    } else if (!this.serious && this.infectionPeriod == 0
-        && HealthStatus.SEVERE_INFECTION.equals(this.currentHealthStatus)) {
-      this.currentHealthStatus = HealthStatus.RECOVERED;
-    } else if (this.infectionPeriod > 0 && HealthStatus.SEVERE_INFECTION.equals(this.currentHealthStatus)) {
-      this.infectionPeriod--;
+  private void scheduleDiseaseExit() {
+    int day = this.population.diseaseExitDay[this.index];
+    if (day != Population.NO_DAY) {
+      this.population.getDiseaseCalendar().schedule(this.index, day);
     }
   }
 
-  private void defineToxicInfectionEvolution() {
-    synchronized (this.random) {
-      if (this.toxicPeriod == 0 && HealthStatus.TOXIC_INFECTION.equals(this.currentHealthStatus)) {
-        // 50% of case is recovery
-        double probability = coronaVirus.getParams().getGlobal().getProbabilityOfDeath();
-        if (probability >= this.random.nextDouble()) {
-          this.currentHealthStatus = HealthStatus.DEAD;
-          this.dead = true;
-        } else {
-          this.currentHealthStatus = HealthStatus.RECOVERED;
-        }
-      } else if (this.toxicPeriod > 0 && HealthStatus.TOXIC_INFECTION.equals(this.currentHealthStatus)) {
-        this.toxicPeriod--;
-      }
+  // happens once, the human leaves the schedule and the world; called from the
+  // disease progression, which runs alone, so the changes are applied at once
+  private void die() {
+    this.setCurrentHealthStatus(HealthStatus.DEAD);
+    this.dead = true;
+    this.stop();
+    WorldChanges changes = this.coronaVirus.getWorldChanges();
+    // a patient on the way to or at the health center frees the place
+    if (ActivityMapping.HEALTH_CENTER.equals(this.getCurrentActivity())) {
+      changes.removePatient(this.getGoal());
     }
-  }
-
-  private void defineImmunityEvolution() {
-    if (this.delayForVaccineEffect == 0 && HealthStatus.SUSCEPTIBLE.equals(this.currentHealthStatus)) {
-      this.currentHealthStatus = HealthStatus.RECOVERED;
-    } else if (this.delayForVaccineEffect > 0 && HealthStatus.SUSCEPTIBLE.equals(this.currentHealthStatus)) {
-      this.delayForVaccineEffect--;
+    if (this.occupiedBuilding != null) {
+      changes.moveHuman(this, this.occupiedBuilding, null);
     }
+    this.coronaVirus.removeDeadHuman(this);
   }
 
   public boolean hasSymptomsOfInfection() {
-    switch (this.currentHealthStatus) {
+    switch (this.getCurrentHealthStatus()) {
     case MILD_INFECTION:
       return true;
     case SEVERE_INFECTION:
@@ -307,49 +376,30 @@ public class Human implements Steppable, Valuable, Serializable {
   public void receiveTreatment() {
     this.receivedTreatment = true;
     // used to the statistics
-    this.coronaVirus.addVisitToMedicalCenter();
+    this.getWorldChanges().addVisitToMedicalCenter();
   }
 
   public void applyVaccine() {
-    if (HealthStatus.SUSCEPTIBLE.equals(this.currentHealthStatus)) {
-      this.vaccinated = true;
-      this.definePeriodOfVaccineEffect();
-    }
-  }
-
-  private void definePeriodOfVaccineEffect() {
-    this.delayForVaccineEffect = 7; // one week
+    this.applyVaccine(this.population.getDiseaseCalendar().getNextDay() + VACCINE_EFFECT_DELAY);
   }
 
-  private void definePeriodOfInfection() {
-    synchronized (this.random) {
-      this.infectionPeriod = 3 + this.random.nextInt(2); // 3-4 days
-    }
-  }
-
-  private void definePeriodOfToxicInfection() {
-    synchronized (this.random) {
-      this.toxicPeriod = 8; // 8 days
-    }
-  }
-
-  public void defineIncubationPeriod() {
-    synchronized (this.random) {
-      this.incubationPeriod = 3 + this.random.nextInt(4); // 3-6 days
-    }
-  }
-
-  private boolean isNewDay() {
-    if (this.time.dayCount(currentStep) > this.currentDay) {
-      this.currentDay = this.time.dayCount(currentStep);
-      return true;
-    } else {
-      return false;
+  // vaccinated earlier, the effect comes on the given day or at once when it is past
+  public void applyVaccine(int effectDay) {
+    if (HealthStatus.SUSCEPTIBLE.equals(this.getCurrentHealthStatus())) {
+      this.vaccinated = true;
+      if (effectDay < this.population.getDiseaseCalendar().getNextDay()) {
+        this.setPreviousHealthStatus(HealthStatus.SUSCEPTIBLE);
+        this.setCurrentHealthStatus(HealthStatus.RECOVERED);
+        return;
+      }
+      this.setVaccineEffectDay(effectDay);
+      this.population.getDiseaseCalendar().schedule(this.index, effectDay);
+      this.population.activate(this.index);
     }
   }
 
   public double doubleValue() {
-    switch (this.currentHealthStatus) {
+    switch (this.getCurrentHealthStatus()) {
     case SUSCEPTIBLE:
       return 1;
     case EXPOSED:
@@ -366,8 +416,28 @@ public class Human implements Steppable, Valuable, Serializable {
   }
 
   private void setObjectLocation(Continuous2D allHumans) {
-    allHumans.setObjectLocation(this,
-        new Double2D(family.getLocation().getLocationX() + jitterX, family.getLocation().getLocationY() + jitterY));
+    allHumans.setObjectLocation(this, this.getLocationIn(family.getLocation()));
+  }
+
+  // where to draw this human when standing on the given building
+  public Double2D getLocationIn(Building building) {
+    return new Double2D(building.getLocationX() + jitterX, building.getLocationY() + jitterY);
+  }
+
+  public WorldChanges getWorldChanges() {
+    if (this.worldChanges == null) {
+      return this.coronaVirus.getWorldChanges();
+    }
+    return worldChanges;
+  }
+
+  public void setWorldChanges(WorldChanges worldChanges) {
+    this.worldChanges = worldChanges;
+  }
+
+  // random stream this human draws from
+  public RandomStream getRandom() {
+    return random;
   }
 
   public void setStoppable(Stoppable stopp) {
@@ -375,34 +445,41 @@ public class Human implements Steppable, Valuable, Serializable {
   }
 
   public void stop() {
-    stopper.stop();
+    // in event-driven mode there is no repeating schedule to stop
+    if (stopper != null) {
+      stopper.stop();
+    }
   }
 
   private void setCurrentPosition(Building position) {
-    this.currentPosition = position;
+    this.population.position[this.index] = this.population.cellIndex(position);
   }
 
   public Building getCurrentPosition() {
-    return currentPosition;
+    return this.population.cell(this.population.position[this.index]);
   }
 
   // goal position - where to go
   public void setGoal(Building position) {
-    this.goal = position;
+    this.population.goal[this.index] = this.population.cellIndex(position);
   }
 
   public Building getGoal() {
-    return goal;
+    return this.population.cell(this.population.goal[this.index]);
   }
 
   // home location
   public void setHome(Building home) {
-    this.home = home;
-
+    this.population.home[this.index] = this.population.cellIndex(home);
   }
 
   public Building getHome() {
-    return home;
+    return this.population.cell(this.population.home[this.index]);
+  }
+
+  // slot of this human in the population store
+  public int getIndex() {
+    return index;
   }
 
   public void setAge(int age) {
@@ -447,12 +524,20 @@ public class Human implements Steppable, Valuable, Serializable {
     return family;
   }
 
+  public int getFamilySlot() {
+    return familySlot;
+  }
+
+  public void setFamilySlot(int familySlot) {
+    this.familySlot = familySlot;
+  }
+
   public void setPreviousHealthStatus(HealthStatus status) {
-    this.previousHealthStatus = status;
+    this.population.previousHealthStatus[this.index] = (byte) status.ordinal();
   }
 
   public HealthStatus getPreviousHealthStatus() {
-    return previousHealthStatus;
+    return HealthStatus.fromOrdinal(this.population.previousHealthStatus[this.index]);
   }
 
   public void setCurrentActivity(ActivityMapping activityMapping) {
@@ -463,46 +548,35 @@ public class Human implements Steppable, Valuable, Serializable {
     return currentActivity;
   }
 
-  // counts time after infection
-  public void setIncubationPeriod(int inf) {
-    this.incubationPeriod = inf;
+  // the current health status ends on the given day instead
+  public void setDiseaseExitDay(int day) {
+    this.population.diseaseExitDay[this.index] = day;
+    this.scheduleDiseaseExit();
   }
 
-  public int getIncubationPeriod() {
-    return incubationPeriod;
+  public int getDiseaseExitDay() {
+    return this.population.diseaseExitDay[this.index];
   }
 
   // counts time after infection
   public void setStayingTime(int sty) {
-    this.stayingTime = sty;
+    this.population.stayingTime[this.index] = sty;
   }
 
   public int getStayingTime() {
-    return stayingTime;
+    return this.population.stayingTime[this.index];
   }
 
   public HealthStatus getCurrentHealthStatus() {
-    return currentHealthStatus;
+    return this.population.getHealthStatus(this.index);
   }
 
   public void setCurrentHealthStatus(HealthStatus healthStatus) {
-    this.currentHealthStatus = healthStatus;
-  }
-
-  public int getInfectionPeriod() {
-    return infectionPeriod;
-  }
-
-  public void setInfectionPeriod(int infectionPeriod) {
-    this.infectionPeriod = infectionPeriod;
-  }
-
-  public int getToxicPeriod() {
-    return toxicPeriod;
-  }
-
-  public void setToxicPeriod(int toxicPeriod) {
-    this.toxicPeriod = toxicPeriod;
+    HealthStatus previous = this.getCurrentHealthStatus();
+    this.population.setHealthStatus(this.index, healthStatus);
+    if (this.occupiedBuilding != null && previous != healthStatus) {
+      this.occupiedBuilding.changeHealthStatus(this, previous, healthStatus);
+    }
   }
 
   public boolean isVaccinated() {
@@ -513,24 +587,34 @@ public class Human implements Steppable, Valuable, Serializable {
     this.vaccinated = vaccinated;
   }
 
-  public boolean isSerious() {
-    return serious;
+  public boolean getReceivedTreatment() {
+    return this.receivedTreatment;
+  }
+
+  public int getVaccineEffectDay() {
+    return this.population.vaccineEffectDay[this.index];
   }
 
-  public void setSerious(boolean serious) {
-    this.serious = serious;
+  public void setVaccineEffectDay(int vaccineEffectDay) {
+    this.population.vaccineEffectDay[this.index] = vaccineEffectDay;
   }
 
-  public boolean getReceivedTreatment() {
-    return this.receivedTreatment;
+  public Building getOccupiedBuilding() {
+    return occupiedBuilding;
+  }
+
+  public int getOccupiedSlot() {
+    return occupiedSlot;
   }
 
-  public int getDelayForVaccineEffect() {
-    return delayForVaccineEffect;
+  // kept by the building
+  void setOccupancy(Building building, int slot) {
+    this.occupiedBuilding = building;
+    this.occupiedSlot = slot;
   }
 
-  public void setDelayForVaccineEffect(int delayForVaccineEffect) {
-    this.delayForVaccineEffect = delayForVaccineEffect;
+  public boolean isInTransit() {
+    return inTransit;
   }
 
   public boolean isDead() {
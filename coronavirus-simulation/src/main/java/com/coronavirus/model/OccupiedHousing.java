@@ -0,0 +1,72 @@
+package com.coronavirus.model;
+
+import java.io.Serializable;
+
+import com.coronavirus.core.random.RandomStream;
+
+import sim.util.Bag;
+
+/**
+ * Family housing with at least one family living in it, grouped by camp. A
+ * building enters its camp when its first family moves in and leaves it when
+ * its last family dies out; it knows its own slot, so both are O(1).
+ */
+public class OccupiedHousing implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  public static final int NOT_OCCUPIED = -1;
+  // occupied buildings, indexed by camp id
+  private Bag[] camps = new Bag[0];
+
+  public void occupy(Building building) {
+    Bag camp = this.getCamp(building.getCampID());
+    building.setOccupiedSlot(camp.numObjs);
+    camp.add(building);
+  }
+
+  // the last building of the camp takes the place of the vacated one
+  public void vacate(Building building) {
+    Bag camp = this.getCamp(building.getCampID());
+    int slot = building.getOccupiedSlot();
+    camp.remove(slot);
+    if (slot < camp.numObjs) {
+      ((Building) camp.objs[slot]).setOccupiedSlot(slot);
+    }
+    building.setOccupiedSlot(NOT_OCCUPIED);
+  }
+
+  public int size(int campID) {
+    return campID < this.camps.length && this.camps[campID] != null ? this.camps[campID].numObjs : 0;
+  }
+
+  // an occupied building of the camp other than the given one, null when there is none
+  public Building randomOther(int campID, Building building, RandomStream random) {
+    if (campID >= this.camps.length || this.camps[campID] == null) {
+      return null;
+    }
+    Bag camp = this.camps[campID];
+    int excluded = building.getCampID() == campID ? building.getOccupiedSlot() : NOT_OCCUPIED;
+    int others = excluded == NOT_OCCUPIED ? camp.numObjs : camp.numObjs - 1;
+    if (others <= 0) {
+      return null;
+    }
+    int slot = others == 1 ? 0 : random.nextInt(others);
+    if (excluded != NOT_OCCUPIED && slot >= excluded) {
+      slot++;
+    }
+    return (Building) camp.objs[slot];
+  }
+
+  private Bag getCamp(int campID) {
+    if (campID >= this.camps.length) {
+      Bag[] camps = new Bag[campID + 1];
+      System.arraycopy(this.camps, 0, camps, 0, this.camps.length);
+      this.camps = camps;
+    }
+    if (this.camps[campID] == null) {
+      this.camps[campID] = new Bag();
+    }
+    return this.camps[campID];
+  }
+
+}
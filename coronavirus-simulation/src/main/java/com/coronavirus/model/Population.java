@@ -0,0 +1,186 @@
+package com.coronavirus.model;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.coronavirus.core.algorithms.Route;
+import com.coronavirus.core.algorithms.TimeManager;
+import com.coronavirus.core.disease.DiseaseCalendar;
+import com.coronavirus.core.disease.DiseaseModel;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+import sim.field.grid.ObjectGrid2D;
+
+/**
+ * Struct-of-arrays store of the per-human state that is touched on every step.
+ * Each human owns the slot given by {@link Human#getIndex()}; positions, goals
+ * and homes are kept as cell indices of the camp grid, in the layout of
+ * {@link Route#cellOf(int, int, int)}. The number of humans in
+ * each health status is kept up to date on every transition, so the statistics
+ * never have to walk the whole population. Humans whose disease (or vaccine)
+ * is still evolving are also kept in an active index.
+ */
+public class Population implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final int INITIAL_CAPACITY = 1024;
+  public static final int NO_CELL = -1;
+  public static final int NOT_ACTIVE = -1;
+  public static final int NO_DAY = -1;
+
+  private final ObjectGrid2D cells;
+  private final int width;
+  // shared by all humans, it holds no state
+  private final TimeManager time;
+  private DiseaseModel diseaseModel;
+  private final DiseaseCalendar diseaseCalendar;
+
+  public int numHumans;
+  public Human[] humans;
+  public byte[] healthStatus;
+  public byte[] previousHealthStatus;
+  public int[] position;
+  public int[] goal;
+  public int[] home;
+  public int[] stayingTime;
+  // day on which each human leaves its health status, set by the disease model
+  public int[] diseaseExitDay;
+  // day on which the vaccine of each human takes effect
+  public int[] vaccineEffectDay;
+  // event-driven mode: step at which each human has to be stepped again
+  public int[] nextWakeUp;
+  // humans whose disease or vaccine is still evolving, in no particular order
+  public int numActive;
+  public int[] active;
+  // slot of each human in the active index, or NOT_ACTIVE
+  public int[] activeSlot;
+  // humans in each health status, indexed by ordinal; updated from any thread
+  private final AtomicIntegerArray statusCounts;
+
+  public Population(ObjectGrid2D cells) {
+    this.cells = cells;
+    this.width = cells.getWidth();
+    this.time = new TimeManager();
+    this.statusCounts = new AtomicIntegerArray(HealthStatus.values().length);
+    this.diseaseCalendar = new DiseaseCalendar();
+    this.numHumans = 0;
+    this.numActive = 0;
+    this.allocate(INITIAL_CAPACITY);
+  }
+
+  // reserve a slot for the human and return its index
+  public int add(Human human) {
+    if (this.numHumans == this.humans.length) {
+      this.allocate(this.humans.length * 2);
+    }
+    int index = this.numHumans++;
+    this.humans[index] = human;
+    this.goal[index] = NO_CELL;
+    this.activeSlot[index] = NOT_ACTIVE;
+    this.diseaseExitDay[index] = NO_DAY;
+    this.vaccineEffectDay[index] = NO_DAY;
+    this.healthStatus[index] = (byte) HealthStatus.SUSCEPTIBLE.ordinal();
+    this.statusCounts.incrementAndGet(HealthStatus.SUSCEPTIBLE.ordinal());
+    return index;
+  }
+
+  public HealthStatus getHealthStatus(int index) {
+    return HealthStatus.fromOrdinal(this.healthStatus[index]);
+  }
+
+  // move the human to another status, keeping the counters in step
+  public void setHealthStatus(int index, HealthStatus status) {
+    int previous = this.healthStatus[index];
+    int next = status.ordinal();
+    if (previous == next) {
+      return;
+    }
+    this.healthStatus[index] = (byte) next;
+    this.statusCounts.decrementAndGet(previous);
+    this.statusCounts.incrementAndGet(next);
+  }
+
+  // add the human to the daily disease progression, if not there yet
+  public synchronized void activate(int index) {
+    if (this.activeSlot[index] != NOT_ACTIVE) {
+      return;
+    }
+    this.activeSlot[index] = this.numActive;
+    this.active[this.numActive++] = index;
+  }
+
+  // remove the human from the daily disease progression, moving the last one into its slot
+  public synchronized void deactivate(int index) {
+    int slot = this.activeSlot[index];
+    if (slot == NOT_ACTIVE) {
+      return;
+    }
+    int last = this.active[--this.numActive];
+    this.active[slot] = last;
+    this.activeSlot[last] = slot;
+    this.activeSlot[index] = NOT_ACTIVE;
+  }
+
+  // humans of the camps kept as compartments, counted until they become agents
+  public void addAggregated(HealthStatus status, int amount) {
+    this.statusCounts.addAndGet(status.ordinal(), amount);
+  }
+
+  // number of humans currently in the given status
+  public int count(HealthStatus status) {
+    return this.statusCounts.get(status.ordinal());
+  }
+
+  public int cellIndex(Building building) {
+    if (building == null) {
+      return NO_CELL;
+    }
+    return Route.cellOf(building.getLocationX(), building.getLocationY(), this.width);
+  }
+
+  public Building cell(int cellIndex) {
+    if (cellIndex == NO_CELL) {
+      return null;
+    }
+    return (Building) this.cells.field[Route.cellX(cellIndex, this.width)][Route.cellY(cellIndex, this.width)];
+  }
+
+  public TimeManager getTime() {
+    return time;
+  }
+
+  public DiseaseCalendar getDiseaseCalendar() {
+    return diseaseCalendar;
+  }
+
+  public DiseaseModel getDiseaseModel() {
+    return diseaseModel;
+  }
+
+  public void setDiseaseModel(DiseaseModel diseaseModel) {
+    this.diseaseModel = diseaseModel;
+  }
+
+  private void allocate(int capacity) {
+    this.humans = (Human[]) grow(this.humans, new Human[capacity]);
+    this.healthStatus = (byte[]) grow(this.healthStatus, new byte[capacity]);
+    this.previousHealthStatus = (byte[]) grow(this.previousHealthStatus, new byte[capacity]);
+    this.position = (int[]) grow(this.position, new int[capacity]);
+    this.goal = (int[]) grow(this.goal, new int[capacity]);
+    this.home = (int[]) grow(this.home, new int[capacity]);
+    this.stayingTime = (int[]) grow(this.stayingTime, new int[capacity]);
+    this.diseaseExitDay = (int[]) grow(this.diseaseExitDay, new int[capacity]);
+    this.vaccineEffectDay = (int[]) grow(this.vaccineEffectDay, new int[capacity]);
+    this.nextWakeUp = (int[]) grow(this.nextWakeUp, new int[capacity]);
+    this.active = (int[]) grow(this.active, new int[capacity]);
+    this.activeSlot = (int[]) grow(this.activeSlot, new int[capacity]);
+  }
+
+  private Object grow(Object current, Object larger) {
+    if (current != null) {
+      System.arraycopy(current, 0, larger, 0, this.numHumans);
+    }
+    return larger;
+  }
+
+}
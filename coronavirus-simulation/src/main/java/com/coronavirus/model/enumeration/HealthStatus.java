@@ -3,6 +3,13 @@ package com.coronavirus.model.enumeration;
 public enum HealthStatus {
   SUSCEPTIBLE, EXPOSED, MILD_INFECTION, SEVERE_INFECTION, TOXIC_INFECTION, RECOVERED, DEAD, INFECTED;
 
+  private static final HealthStatus[] VALUES = values();
+
+  // used to the population store, which keeps the status as its ordinal
+  public static HealthStatus fromOrdinal(int ordinal) {
+    return VALUES[ordinal];
+  }
+
   public static HealthStatus typeOfHealthStatus(HealthStatus currentHealthStatus) {
     switch (currentHealthStatus) {
     case SUSCEPTIBLE:
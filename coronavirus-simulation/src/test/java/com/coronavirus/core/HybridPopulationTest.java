@@ -0,0 +1,146 @@
+package com.coronavirus.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.coronavirus.core.algorithms.NearestFacilityTable;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.core.random.RandomStreams;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Family;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.ActivityMapping;
+import com.coronavirus.model.enumeration.HealthStatus;
+import com.coronavirus.model.enumeration.Sex;
+
+public class HybridPopulationTest {
+
+  private static final int PLANNED_CAMP = 1;
+  private static final int AGENT_CAMP = 2;
+  private static final int PLANNED = 4;
+
+  private CoronaVirus coronaVirus;
+  private HybridPopulation hybrid;
+  private Building market;
+  private Building agentHome;
+
+  // a camp of four planned adults and a camp of two agents, sharing a market
+  @Before
+  public void camps() {
+    this.coronaVirus = new CoronaVirus(1, new Parameters((String[]) null));
+    this.coronaVirus.setRandomStreams(new RandomStreams(1));
+    new SimulationBuilder().createGrids(10, 10, this.coronaVirus);
+    Building plannedHome = this.home(2, 2, PLANNED_CAMP);
+    this.agentHome = this.home(6, 2, AGENT_CAMP);
+    this.market = new Building(4, 2);
+    this.coronaVirus.allCamps.field[4][2] = this.market;
+    SimulationBuilder.addFacility(this.coronaVirus, this.market, 4);
+    this.coronaVirus.setNearestFacilities(new NearestFacilityTable(this.coronaVirus));
+
+    this.hybrid = new HybridPopulation(this.coronaVirus);
+    this.coronaVirus.setHybridPopulation(this.hybrid);
+    this.hybrid.addFamily(plannedHome);
+    for (int i = 0; i < PLANNED; i++) {
+      this.hybrid.addMember(30, Sex.F);
+    }
+    Family family = new Family(this.agentHome);
+    this.coronaVirus.addFamily(family);
+    SimulationBuilder.addHuman(30, Sex.M, family, this.coronaVirus);
+    SimulationBuilder.addHuman(35, Sex.F, family, this.coronaVirus);
+  }
+
+  @Test
+  public void plannedUsersOfAFacilityAreInfectedThere() {
+    this.allAgentsGoTo(this.market);
+    this.hybrid.exposeAtFacility(this.market, 1, 0, new RandomStream(3));
+
+    assertFalse(this.hybrid.isAggregated(PLANNED_CAMP));
+    Population population = this.coronaVirus.getPopulation();
+    assertEquals(2 + PLANNED, population.numHumans);
+    assertEquals(PLANNED, population.count(HealthStatus.EXPOSED));
+    assertEquals(2, population.count(HealthStatus.SUSCEPTIBLE));
+  }
+
+  @Test
+  public void nobodyAtTheFacilitiesOfTheActivityMeansNoExposure() {
+    this.hybrid.exposeAtFacility(this.market, 1, 0, new RandomStream(3));
+    assertTrue(this.hybrid.isAggregated(PLANNED_CAMP));
+    this.allAgentsGoTo(this.market);
+    this.hybrid.exposeAtFacility(this.market, 0, 1, new RandomStream(3));
+    assertTrue(this.hybrid.isAggregated(PLANNED_CAMP));
+    assertEquals(PLANNED + 2, this.coronaVirus.getPopulation().count(HealthStatus.SUSCEPTIBLE));
+  }
+
+  @Test
+  public void vaccinesTakeEffectOnTheDayEachWasGiven() {
+    Population population = this.coronaVirus.getPopulation();
+    this.hybrid.vaccinate(0);
+    this.takeDaysUntil(4);
+    this.hybrid.vaccinate(1);
+
+    this.progressUntil(Human.VACCINE_EFFECT_DELAY);
+    assertEquals(1, population.count(HealthStatus.RECOVERED));
+    this.progressUntil(4 + Human.VACCINE_EFFECT_DELAY - 1);
+    assertEquals(1, population.count(HealthStatus.RECOVERED));
+    this.progressUntil(4 + Human.VACCINE_EFFECT_DELAY);
+    assertEquals(2, population.count(HealthStatus.RECOVERED));
+    // the planned humans left and the two agents
+    assertEquals(PLANNED - 2 + 2, population.count(HealthStatus.SUSCEPTIBLE));
+  }
+
+  @Test
+  public void expandedHumansKeepTheirOwnVaccineDay() {
+    this.hybrid.vaccinate(0);
+    this.takeDaysUntil(4);
+    this.hybrid.vaccinate(1);
+    this.progressUntil(Human.VACCINE_EFFECT_DELAY + 1);
+
+    int first = this.hybrid.expand(PLANNED_CAMP);
+    Population population = this.coronaVirus.getPopulation();
+    assertEquals(HealthStatus.RECOVERED, population.humans[first].getCurrentHealthStatus());
+    Human second = population.humans[first + 1];
+    assertEquals(HealthStatus.SUSCEPTIBLE, second.getCurrentHealthStatus());
+    assertEquals(4 + Human.VACCINE_EFFECT_DELAY, second.getVaccineEffectDay());
+    assertEquals(Population.NO_DAY, population.humans[first + 2].getVaccineEffectDay());
+    assertEquals(1, population.count(HealthStatus.RECOVERED));
+  }
+
+  private Building home(int x, int y, int campID) {
+    Building home = new Building(x, y);
+    home.setCampID(campID);
+    home.setActivityMapping(ActivityMapping.STAY_HOME);
+    this.coronaVirus.allCamps.field[x][y] = home;
+    this.coronaVirus.getFamilyHousing().add(home);
+    return home;
+  }
+
+  private void allAgentsGoTo(Building facility) {
+    Population population = this.coronaVirus.getPopulation();
+    for (int i = 0; i < population.numHumans; i++) {
+      this.coronaVirus.getWorldChanges().moveHuman(population.humans[i], this.agentHome, facility);
+    }
+  }
+
+  // the disease calendar moves on to the given day
+  private void takeDaysUntil(int day) {
+    Population population = this.coronaVirus.getPopulation();
+    for (int d = population.getDiseaseCalendar().getNextDay(); d < day; d++) {
+      population.getDiseaseCalendar().take(d, population);
+    }
+  }
+
+  // the daily disease progression of the compartments up to the given day
+  private void progressUntil(int day) {
+    Population population = this.coronaVirus.getPopulation();
+    for (int d = population.getDiseaseCalendar().getNextDay(); d <= day; d++) {
+      population.getDiseaseCalendar().take(d, population);
+      this.hybrid.progress(d);
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.coronavirus.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.coronavirus.model.Building;
+
+public class RoadGraphTest {
+
+  @Test
+  public void everyRoadIsStoredFromBothEndsInTheOrderAdded() {
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Building origin = new Building(0, 0);
+    Node a = builder.addNode(origin);
+    Node b = builder.addNode(new Building(3, 4));
+    Node c = builder.addNode(new Building(6, 0));
+    Node d = builder.addNode(new Building(9, 9));
+    builder.addRoad(a, b, 7);
+    builder.addRoad(c, a, 2);
+    builder.addRoad(b, c, 5);
+    RoadGraph graph = builder.build();
+
+    assertEquals(4, graph.getNumNodes());
+    assertSame(origin, graph.getNode(a.getId()).getLocation());
+    assertEquals(2, graph.getDegree(a.getId()));
+    assertEquals(2, graph.getDegree(b.getId()));
+    assertEquals(2, graph.getDegree(c.getId()));
+    assertEquals(0, graph.getDegree(d.getId()));
+
+    assertLinks(graph, a.getId(), new int[] { b.getId(), c.getId() }, new int[] { 7, 2 });
+    assertLinks(graph, b.getId(), new int[] { a.getId(), c.getId() }, new int[] { 7, 5 });
+    assertLinks(graph, c.getId(), new int[] { a.getId(), b.getId() }, new int[] { 2, 5 });
+    assertEquals(graph.getTargets().length, graph.getEndLink(d.getId()));
+  }
+
+  @Test
+  public void distanceIsTheStraightLine() {
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Node a = builder.addNode(new Building(0, 0));
+    Node b = builder.addNode(new Building(3, 4));
+    RoadGraph graph = builder.build();
+    assertEquals(5.0, graph.distance(a.getId(), b.getId()), 1e-12);
+    assertEquals(5.0, graph.distance(b.getId(), a.getId()), 1e-12);
+  }
+
+  @Test
+  public void manyRoadsGrowTheBuilder() {
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Node hub = builder.addNode(new Building(0, 0));
+    for (int i = 1; i <= 3000; i++) {
+      builder.addRoad(hub, builder.addNode(new Building(i, 0)), i);
+    }
+    RoadGraph graph = builder.build();
+    assertEquals(3000, graph.getDegree(hub.getId()));
+    assertEquals(3000, graph.getWeight(graph.getEndLink(hub.getId()) - 1));
+  }
+
+  private static void assertLinks(RoadGraph graph, int id, int[] targets, int[] weights) {
+    assertEquals(targets.length, graph.getDegree(id));
+    for (int i = 0; i < targets.length; i++) {
+      assertEquals(targets[i], graph.getTarget(graph.getFirstLink(id) + i));
+      assertEquals(weights[i], graph.getWeight(graph.getFirstLink(id) + i));
+    }
+  }
+
+}
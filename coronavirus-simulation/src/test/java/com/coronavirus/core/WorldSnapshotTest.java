@@ -0,0 +1,127 @@
+package com.coronavirus.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.coronavirus.model.Building;
+import com.coronavirus.model.enumeration.ActivityMapping;
+
+public class WorldSnapshotTest {
+
+  private static final int WIDTH = 4;
+  private static final int HEIGHT = 3;
+  private static final byte[] HASH = { 1, 2, 3 };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void worldReadBackEqualsWorldWritten() throws IOException {
+    CoronaVirus written = world();
+    File file = new File(this.folder.getRoot(), "world.bin");
+    WorldSnapshot.write(file, HASH, written);
+
+    CoronaVirus read = new CoronaVirus(1, new Parameters((String[]) null));
+    assertTrue(WorldSnapshot.read(file, HASH, read, new SimulationBuilder()));
+
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        Building expected = (Building) written.allCamps.field[x][y];
+        Building actual = (Building) read.allCamps.field[x][y];
+        assertEquals(expected.getFieldID(), actual.getFieldID());
+        assertEquals(expected.getCampID(), actual.getCampID());
+        assertEquals(expected.getElevation(), actual.getElevation(), 0);
+        assertEquals(x, actual.getLocationX());
+        assertEquals(y, actual.getLocationY());
+        assertEquals(written.roadGrid.get(x, y), read.roadGrid.get(x, y));
+        Node expectedNode = (Node) written.closestNodes.get(x, y);
+        Node actualNode = (Node) read.closestNodes.get(x, y);
+        if (expectedNode == null) {
+          assertNull(actualNode);
+        } else {
+          assertEquals(expectedNode.getId(), actualNode.getId());
+        }
+      }
+    }
+    Building market = (Building) read.allCamps.field[2][1];
+    assertEquals(4, market.getFacility().getFacilityID());
+    assertEquals(ActivityMapping.MARKET, market.getActivityMapping());
+    assertSame(market, read.getMarket().get(0));
+
+    RoadGraph expected = written.roadGraph;
+    RoadGraph actual = read.roadGraph;
+    assertEquals(expected.getNumNodes(), actual.getNumNodes());
+    for (int i = 0; i < expected.getNumNodes(); i++) {
+      assertEquals(expected.getNode(i).getLocation().getLocationX(), actual.getNode(i).getLocation().getLocationX());
+      assertEquals(expected.getNode(i).getLocation().getLocationY(), actual.getNode(i).getLocation().getLocationY());
+      assertEquals(expected.getFirstLink(i), actual.getFirstLink(i));
+      assertEquals(expected.getEndLink(i), actual.getEndLink(i));
+      for (int link = expected.getFirstLink(i); link < expected.getEndLink(i); link++) {
+        assertEquals(expected.getTarget(link), actual.getTarget(link));
+        assertEquals(expected.getWeight(link), actual.getWeight(link));
+      }
+    }
+
+    assertEquals(written.getClimate().getDate(), read.getClimate().getDate());
+    assertEquals(written.getClimate().getTemperature(), read.getClimate().getTemperature());
+    assertEquals(written.getClimate().getPrecipitation(), read.getClimate().getPrecipitation());
+  }
+
+  @Test
+  public void snapshotOfOtherInputsIsNotUsed() throws IOException {
+    File file = new File(this.folder.getRoot(), "world.bin");
+    WorldSnapshot.write(file, HASH, world());
+    byte[] other = { 1, 2, 4 };
+    assertFalse(WorldSnapshot.read(file, other, new CoronaVirus(1, new Parameters((String[]) null)),
+        new SimulationBuilder()));
+    assertFalse(WorldSnapshot.read(new File(this.folder.getRoot(), "missing.bin"), HASH,
+        new CoronaVirus(1, new Parameters((String[]) null)), new SimulationBuilder()));
+  }
+
+  // a small camp with a market, two roads and two days of climate
+  private static CoronaVirus world() {
+    CoronaVirus coronaVirus = new CoronaVirus(1, new Parameters((String[]) null));
+    new SimulationBuilder().createGrids(WIDTH, HEIGHT, coronaVirus);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        Building building = new Building(x, y);
+        building.setFieldID(x + 1);
+        building.setCampID(y % 2 + 1);
+        building.setElevation(100 + x * 0.5 + y);
+        coronaVirus.allCamps.field[x][y] = building;
+        coronaVirus.roadGrid.set(x, y, y == 1 ? (x + 1) * 1000 : 0);
+      }
+    }
+    SimulationBuilder.addFacility(coronaVirus, (Building) coronaVirus.allCamps.field[2][1], 4);
+
+    RoadGraph.Builder roads = new RoadGraph.Builder();
+    Node a = roads.addNode((Building) coronaVirus.allCamps.field[0][1]);
+    Node b = roads.addNode((Building) coronaVirus.allCamps.field[2][1]);
+    Node c = roads.addNode((Building) coronaVirus.allCamps.field[3][1]);
+    roads.addRoad(a, b, 2);
+    roads.addRoad(b, c, 1);
+    coronaVirus.roadGraph = roads.build();
+    for (int x = 0; x < WIDTH; x++) {
+      coronaVirus.closestNodes.set(x, 0, x < 2 ? a : c);
+    }
+
+    coronaVirus.getClimate().addDate("2012-01-01");
+    coronaVirus.getClimate().addTemperature(Double.valueOf(25.5));
+    coronaVirus.getClimate().addPrecipitation(Double.valueOf(0));
+    coronaVirus.getClimate().addDate("2012-01-02");
+    coronaVirus.getClimate().addTemperature(Double.valueOf(27));
+    coronaVirus.getClimate().addPrecipitation(Double.valueOf(3.2));
+    return coronaVirus;
+  }
+
+}
@@ -0,0 +1,122 @@
+package com.coronavirus.core.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.coronavirus.core.Node;
+import com.coronavirus.core.RoadGraph;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Building;
+
+public class AStarTest {
+
+  private static final int SIDE = 12;
+
+  @Test
+  public void pathCostsMatchDijkstra() {
+    RandomStream random = new RandomStream(5);
+    RoadGraph graph = lattice(random);
+    int n = graph.getNumNodes();
+    for (int search = 0; search < 200; search++) {
+      int start = random.nextInt(n);
+      int goal = random.nextInt(n);
+      int[] path = AStar.astarNodes(graph, start, goal);
+      assertNotNull(path);
+      assertEquals(dijkstra(graph, start)[goal], cost(graph, start, path));
+      if (path.length > 0) {
+        assertEquals(goal, path[path.length - 1]);
+      }
+    }
+  }
+
+  @Test
+  public void pathToTheStartIsEmpty() {
+    RoadGraph graph = lattice(new RandomStream(1));
+    assertEquals(0, AStar.astarNodes(graph, 7, 7).length);
+  }
+
+  @Test
+  public void unreachableGoalGivesNoPath() {
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Node a = builder.addNode(new Building(0, 0));
+    Node b = builder.addNode(new Building(1, 0));
+    builder.addNode(new Building(5, 5));
+    builder.addRoad(a, b, 1);
+    RoadGraph graph = builder.build();
+    assertNull(AStar.astarNodes(graph, 0, 2));
+    // the workspace is reused, the next search is not affected
+    assertEquals(Arrays.toString(new int[] { 1 }), Arrays.toString(AStar.astarNodes(graph, 0, 1)));
+  }
+
+  // nodes on a grid, linked to the right and below, never cheaper than the straight line
+  private static RoadGraph lattice(RandomStream random) {
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Node[] nodes = new Node[SIDE * SIDE];
+    for (int y = 0; y < SIDE; y++) {
+      for (int x = 0; x < SIDE; x++) {
+        nodes[y * SIDE + x] = builder.addNode(new Building(x, y));
+      }
+    }
+    for (int y = 0; y < SIDE; y++) {
+      for (int x = 0; x < SIDE; x++) {
+        if (x + 1 < SIDE) {
+          builder.addRoad(nodes[y * SIDE + x], nodes[y * SIDE + x + 1], 1 + random.nextInt(5));
+        }
+        if (y + 1 < SIDE) {
+          builder.addRoad(nodes[y * SIDE + x], nodes[(y + 1) * SIDE + x], 1 + random.nextInt(5));
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private static int cost(RoadGraph graph, int start, int[] path) {
+    int total = 0;
+    int from = start;
+    for (int to : path) {
+      int weight = -1;
+      for (int link = graph.getFirstLink(from); link < graph.getEndLink(from); link++) {
+        if (graph.getTarget(link) == to) {
+          weight = weight < 0 ? graph.getWeight(link) : Math.min(weight, graph.getWeight(link));
+        }
+      }
+      if (weight < 0) {
+        throw new AssertionError("No road from " + from + " to " + to);
+      }
+      total += weight;
+      from = to;
+    }
+    return total;
+  }
+
+  private static int[] dijkstra(RoadGraph graph, int start) {
+    int n = graph.getNumNodes();
+    int[] distance = new int[n];
+    boolean[] done = new boolean[n];
+    Arrays.fill(distance, Integer.MAX_VALUE);
+    distance[start] = 0;
+    for (int round = 0; round < n; round++) {
+      int x = -1;
+      for (int i = 0; i < n; i++) {
+        if (!done[i] && distance[i] != Integer.MAX_VALUE && (x < 0 || distance[i] < distance[x])) {
+          x = i;
+        }
+      }
+      if (x < 0) {
+        break;
+      }
+      done[x] = true;
+      for (int link = graph.getFirstLink(x); link < graph.getEndLink(x); link++) {
+        int next = graph.getTarget(link);
+        distance[next] = Math.min(distance[next], distance[x] + graph.getWeight(link));
+      }
+    }
+    return distance;
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.coronavirus.core.algorithms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.coronavirus.core.random.RandomStream;
+
+public class DistanceTransformTest {
+
+  @Test
+  public void matchesBruteForceWithSmallestLabelOnTies() {
+    RandomStream random = new RandomStream(31);
+    for (int round = 0; round < 20; round++) {
+      int width = 1 + random.nextInt(40);
+      int height = 1 + random.nextInt(40);
+      int[] seeds = new int[width * height];
+      Arrays.fill(seeds, -1);
+      int numSeeds = 1 + random.nextInt(12);
+      for (int s = 0; s < numSeeds; s++) {
+        seeds[random.nextInt(seeds.length)] = random.nextInt(100);
+      }
+
+      int[] labels = seeds.clone();
+      int[] distances = DistanceTransform.transform(width, height, labels, 1);
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          int best = Integer.MAX_VALUE;
+          int label = -1;
+          for (int seed = 0; seed < seeds.length; seed++) {
+            if (seeds[seed] < 0) {
+              continue;
+            }
+            int distance = Math.abs(Route.cellX(seed, width) - x) + Math.abs(Route.cellY(seed, width) - y);
+            if (distance < best || (distance == best && seeds[seed] < label)) {
+              best = distance;
+              label = seeds[seed];
+            }
+          }
+          int cell = Route.cellOf(x, y, width);
+          assertEquals(best, distances[cell]);
+          assertEquals(label, labels[cell]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void sameResultOnAnyNumberOfThreads() {
+    RandomStream random = new RandomStream(8);
+    int width = 57;
+    int height = 33;
+    int[] seeds = new int[width * height];
+    Arrays.fill(seeds, -1);
+    for (int s = 0; s < 30; s++) {
+      seeds[random.nextInt(seeds.length)] = random.nextInt(10);
+    }
+    int[] single = seeds.clone();
+    int[] parallel = seeds.clone();
+    assertArrayEquals(DistanceTransform.transform(width, height, single, 1),
+        DistanceTransform.transform(width, height, parallel, 4));
+    assertArrayEquals(single, parallel);
+  }
+
+  @Test
+  public void gridWithoutSeedsKeepsNoLabel() {
+    int[] labels = new int[12];
+    Arrays.fill(labels, -1);
+    DistanceTransform.transform(4, 3, labels, 2);
+    for (int label : labels) {
+      assertEquals(-1, label);
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+package com.coronavirus.core.algorithms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.coronavirus.core.Node;
+import com.coronavirus.core.RoadGraph;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Building;
+
+public class FacilityRoutesTest {
+
+  private static final int SIDE = 8;
+  private static final byte[] HASH = { 9, 8, 7 };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void pathsLeadToTheRootAsCheaplyAsAStar() {
+    RoadGraph graph = lattice();
+    int[] roots = { 0, 27, SIDE * SIDE - 1 };
+    FacilityRoutes routes = FacilityRoutes.build(graph, roots);
+    for (int root : roots) {
+      assertTrue(routes.isRoot(root));
+      for (int origin = 0; origin < graph.getNumNodes(); origin++) {
+        int[] path = routes.path(origin, root);
+        int[] searched = AStar.astarNodes(graph, origin, root);
+        assertEquals(cost(graph, origin, searched), cost(graph, origin, path));
+        if (origin == root) {
+          assertEquals(0, path.length);
+        } else {
+          assertEquals(root, path[path.length - 1]);
+        }
+      }
+    }
+    assertFalse(routes.isRoot(1));
+  }
+
+  @Test
+  public void unreachableRootGivesNoPath() {
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Node a = builder.addNode(new Building(0, 0));
+    Node b = builder.addNode(new Building(1, 0));
+    Node c = builder.addNode(new Building(4, 4));
+    builder.addRoad(a, b, 1);
+    FacilityRoutes routes = FacilityRoutes.build(builder.build(), new int[] { c.getId() });
+    assertNull(routes.path(a.getId(), c.getId()));
+  }
+
+  @Test
+  public void tableReadBackGivesTheSamePaths() throws IOException {
+    RoadGraph graph = lattice();
+    int[] roots = { 5, 40 };
+    FacilityRoutes written = FacilityRoutes.build(graph, roots);
+    File file = new File(this.folder.getRoot(), "routes.bin");
+    written.write(file, HASH);
+
+    FacilityRoutes read = FacilityRoutes.read(file, HASH);
+    assertArrayEquals(roots, read.getRoots());
+    for (int root : roots) {
+      for (int origin = 0; origin < graph.getNumNodes(); origin++) {
+        assertArrayEquals(written.path(origin, root), read.path(origin, root));
+      }
+    }
+    assertNull(FacilityRoutes.read(file, new byte[] { 9, 8, 6 }));
+    assertNull(FacilityRoutes.read(new File(this.folder.getRoot(), "missing.bin"), HASH));
+  }
+
+  private static RoadGraph lattice() {
+    RandomStream random = new RandomStream(17);
+    RoadGraph.Builder builder = new RoadGraph.Builder();
+    Node[] nodes = new Node[SIDE * SIDE];
+    for (int y = 0; y < SIDE; y++) {
+      for (int x = 0; x < SIDE; x++) {
+        nodes[y * SIDE + x] = builder.addNode(new Building(x, y));
+      }
+    }
+    for (int y = 0; y < SIDE; y++) {
+      for (int x = 0; x < SIDE; x++) {
+        if (x + 1 < SIDE) {
+          builder.addRoad(nodes[y * SIDE + x], nodes[y * SIDE + x + 1], 1 + random.nextInt(4));
+        }
+        if (y + 1 < SIDE) {
+          builder.addRoad(nodes[y * SIDE + x], nodes[(y + 1) * SIDE + x], 1 + random.nextInt(4));
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private static int cost(RoadGraph graph, int start, int[] path) {
+    int total = 0;
+    int from = start;
+    for (int to : path) {
+      int link = graph.getFirstLink(from);
+      while (link < graph.getEndLink(from) && graph.getTarget(link) != to) {
+        link++;
+      }
+      assertTrue("no road from " + from + " to " + to, link < graph.getEndLink(from));
+      total += graph.getWeight(link);
+      from = to;
+    }
+    return total;
+  }
+
+}
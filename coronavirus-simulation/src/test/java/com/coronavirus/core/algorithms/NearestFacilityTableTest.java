@@ -0,0 +1,102 @@
+package com.coronavirus.core.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.Parameters;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.enumeration.ActivityMapping;
+
+import sim.field.grid.ObjectGrid2D;
+import sim.util.Bag;
+
+public class NearestFacilityTableTest {
+
+  private static final int SIDE = 30;
+
+  @Test
+  public void drawnFacilityIsAlwaysAtTheSmallestDistance() {
+    RandomStream random = new RandomStream(23);
+    CoronaVirus coronaVirus = camp();
+    for (int i = 0; i < 8; i++) {
+      coronaVirus.getWorks().add(new Building(random.nextInt(SIDE), random.nextInt(SIDE)));
+    }
+    for (int i = 0; i < 50; i++) {
+      coronaVirus.getFamilyHousing().add(new Building(random.nextInt(SIDE), random.nextInt(SIDE)));
+    }
+    NearestFacilityTable table = new NearestFacilityTable(coronaVirus);
+    Bag homes = coronaVirus.getFamilyHousing();
+    for (int h = 0; h < homes.numObjs; h++) {
+      Building home = (Building) homes.objs[h];
+      assertTrue(table.contains(home, ActivityMapping.WORK));
+      long best = Long.MAX_VALUE;
+      for (Object work : coronaVirus.getWorks()) {
+        best = Math.min(best, squaredDistance(home, (Building) work));
+      }
+      for (int draw = 0; draw < 5; draw++) {
+        assertEquals(best, squaredDistance(home, table.getNearest(home, ActivityMapping.WORK, random)));
+      }
+    }
+  }
+
+  @Test
+  public void tiesAreAllDrawn() {
+    CoronaVirus coronaVirus = camp();
+    Building home = new Building(10, 10);
+    coronaVirus.getFamilyHousing().add(home);
+    Building north = new Building(10, 7);
+    Building east = new Building(13, 10);
+    coronaVirus.getMarket().add(north);
+    coronaVirus.getMarket().add(new Building(20, 20));
+    coronaVirus.getMarket().add(east);
+    NearestFacilityTable table = new NearestFacilityTable(coronaVirus);
+
+    RandomStream random = new RandomStream(2);
+    Set<Building> drawn = new HashSet<Building>();
+    for (int draw = 0; draw < 100; draw++) {
+      drawn.add(table.getNearest(home, ActivityMapping.MARKET, random));
+    }
+    assertEquals(2, drawn.size());
+    assertTrue(drawn.contains(north));
+    assertTrue(drawn.contains(east));
+  }
+
+  @Test
+  public void onlyHomesAndFacilityActivitiesAreInTheTable() {
+    CoronaVirus coronaVirus = camp();
+    Building home = new Building(1, 1);
+    coronaVirus.getFamilyHousing().add(home);
+    Building school = new Building(2, 2);
+    coronaVirus.getSchooles().add(school);
+    NearestFacilityTable table = new NearestFacilityTable(coronaVirus);
+
+    assertSame(school, table.getNearest(home, ActivityMapping.SCHOOL, new RandomStream(1)));
+    assertFalse(table.contains(new Building(5, 5), ActivityMapping.SCHOOL));
+    assertFalse(table.contains(home, ActivityMapping.STAY_HOME));
+    // an activity without any facility has no nearest one
+    assertNull(table.getNearest(home, ActivityMapping.HEALTH_CENTER, new RandomStream(1)));
+  }
+
+  private static CoronaVirus camp() {
+    CoronaVirus coronaVirus = new CoronaVirus(1, new Parameters((String[]) null));
+    coronaVirus.allCamps = new ObjectGrid2D(SIDE, SIDE);
+    return coronaVirus;
+  }
+
+  private static long squaredDistance(Building a, Building b) {
+    long dx = a.getLocationX() - b.getLocationX();
+    long dy = a.getLocationY() - b.getLocationY();
+    return dx * dx + dy * dy;
+  }
+
+}
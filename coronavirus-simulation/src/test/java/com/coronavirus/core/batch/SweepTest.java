@@ -0,0 +1,72 @@
+package com.coronavirus.core.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SweepTest {
+
+  @Test
+  public void rangeWithTenthStepsKeepsBothEndsWithoutDrift() {
+    Sweep sweep = new Sweep();
+    sweep.add("probabilityOfMildInfection", "0.6:0.9:0.1");
+    List<Map<String, String>> configurations = sweep.configurations();
+    assertEquals(4, configurations.size());
+    assertEquals("0.6", configurations.get(0).get("probabilityOfMildInfection"));
+    assertEquals("0.7", configurations.get(1).get("probabilityOfMildInfection"));
+    assertEquals("0.8", configurations.get(2).get("probabilityOfMildInfection"));
+    assertEquals("0.9", configurations.get(3).get("probabilityOfMildInfection"));
+  }
+
+  @Test
+  public void rangesAndListsMix() {
+    Sweep sweep = new Sweep();
+    sweep.add("healthFacilityCapacity", "5 10:30:10 40");
+    assertEquals(5, sweep.configurations().size());
+    assertEquals("5", sweep.configurations().get(0).get("healthFacilityCapacity"));
+    assertEquals("40", sweep.configurations().get(4).get("healthFacilityCapacity"));
+  }
+
+  @Test
+  public void cartesianProductVariesTheLastNameFastest() {
+    Sweep sweep = new Sweep();
+    sweep.add("b", "1 2");
+    sweep.add("a", "x y z");
+    assertEquals(Arrays.asList("a", "b"), sweep.getNames());
+    List<Map<String, String>> configurations = sweep.configurations();
+    assertEquals(6, configurations.size());
+    String[][] expected = { { "x", "1" }, { "x", "2" }, { "y", "1" }, { "y", "2" }, { "z", "1" }, { "z", "2" } };
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i][0], configurations.get(i).get("a"));
+      assertEquals(expected[i][1], configurations.get(i).get("b"));
+    }
+  }
+
+  @Test
+  public void rowValuesLineUpWithTheHeader() {
+    List<String> names = Arrays.asList("zeta", "alpha", "mid");
+    Map<String, String> configuration = new HashMap<String, String>();
+    configuration.put("alpha", "1");
+    configuration.put("mid", "2");
+    configuration.put("zeta", "3");
+
+    String[] header = BatchRunner.header(names);
+    List<String> columns = BatchRunner.parameterColumns(names, configuration);
+    assertEquals("RUN", header[0]);
+    assertEquals("SEED", header[1]);
+    for (int i = 0; i < names.size(); i++) {
+      assertEquals(configuration.get(header[2 + i]), columns.get(i));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNonPositiveStep() {
+    new Sweep().add("healthFacilityCapacity", "10:30:0");
+  }
+
+}
@@ -0,0 +1,83 @@
+package com.coronavirus.core.disease;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.coronavirus.model.Population;
+
+import sim.field.grid.ObjectGrid2D;
+import sim.util.IntBag;
+
+public class DiseaseCalendarTest {
+
+  @Test
+  public void humansAreTakenOnTheirDayOnly() {
+    Population population = population(3);
+    DiseaseCalendar calendar = population.getDiseaseCalendar();
+    schedule(population, 0, 2);
+    schedule(population, 1, 5);
+    schedule(population, 2, 2);
+
+    assertDue(new int[0], calendar.take(1, population));
+    assertDue(new int[] { 0, 2 }, calendar.take(2, population));
+    assertEquals(3, calendar.getNextDay());
+    assertDue(new int[0], calendar.take(3, population));
+    assertDue(new int[] { 1 }, calendar.take(5, population));
+  }
+
+  @Test
+  public void rescheduledHumanIsOnlyTakenOnItsNewDay() {
+    Population population = population(1);
+    DiseaseCalendar calendar = population.getDiseaseCalendar();
+    schedule(population, 0, 4);
+    schedule(population, 0, 6);
+    assertDue(new int[0], calendar.take(4, population));
+    assertDue(new int[] { 0 }, calendar.take(6, population));
+  }
+
+  @Test
+  public void dayOnALaterLapOfTheRingWaitsForIt() {
+    Population population = population(2);
+    DiseaseCalendar calendar = population.getDiseaseCalendar();
+    schedule(population, 0, 3 + 64);
+    schedule(population, 1, 3 + 128);
+    assertDue(new int[0], calendar.take(3, population));
+    assertDue(new int[] { 0 }, calendar.take(3 + 64, population));
+    assertDue(new int[] { 1 }, calendar.take(3 + 128, population));
+  }
+
+  @Test
+  public void vaccineDayIsTakenLikeAnExitDay() {
+    Population population = population(1);
+    DiseaseCalendar calendar = population.getDiseaseCalendar();
+    population.vaccineEffectDay[0] = 7;
+    calendar.schedule(0, 7);
+    assertDue(new int[] { 0 }, calendar.take(7, population));
+    // taken days are dropped from the ring
+    assertDue(new int[0], calendar.take(7 + 64, population));
+  }
+
+  private static Population population(int humans) {
+    Population population = new Population(new ObjectGrid2D(2, 2));
+    for (int i = 0; i < humans; i++) {
+      population.add(null);
+    }
+    return population;
+  }
+
+  private static void schedule(Population population, int index, int day) {
+    population.diseaseExitDay[index] = day;
+    population.getDiseaseCalendar().schedule(index, day);
+  }
+
+  private static void assertDue(int[] expected, IntBag due) {
+    int[] actual = new int[due.numObjs];
+    System.arraycopy(due.objs, 0, actual, 0, due.numObjs);
+    Arrays.sort(actual);
+    assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.coronavirus.core.disease;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.HealthStatus;
+
+import sim.field.grid.ObjectGrid2D;
+
+public class DiseaseStateMachineTest {
+
+  private static DiseaseStateMachine model() {
+    return new DiseaseStateMachine.Builder(HealthStatus.EXPOSED)
+        .dwell(HealthStatus.EXPOSED, 2, 5)
+        .transition(HealthStatus.EXPOSED, HealthStatus.MILD_INFECTION, 0.7)
+        .transition(HealthStatus.EXPOSED, HealthStatus.SEVERE_INFECTION, 0.3)
+        .dwell(HealthStatus.MILD_INFECTION, 0, 0)
+        .transition(HealthStatus.MILD_INFECTION, HealthStatus.RECOVERED, 1)
+        .dwell(HealthStatus.SEVERE_INFECTION, 3, 3)
+        .transition(HealthStatus.SEVERE_INFECTION, HealthStatus.DEAD, 1)
+        .build();
+  }
+
+  @Test
+  public void infectionStartsInTheGivenStatusWithDwellInRange() {
+    DiseaseStateMachine model = model();
+    Population population = new Population(new ObjectGrid2D(2, 2));
+    int index = population.add(null);
+    RandomStream random = new RandomStream(4);
+    int[] seen = new int[6];
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(HealthStatus.EXPOSED, model.infect(population, index, 10, random));
+      int dwell = population.diseaseExitDay[index] - 10;
+      assertTrue(dwell >= 2 && dwell <= 5);
+      seen[dwell]++;
+    }
+    for (int dwell = 2; dwell <= 5; dwell++) {
+      assertEquals(2500, seen[dwell], 250);
+    }
+  }
+
+  @Test
+  public void nextStatusIsDrawnWithItsProbability() {
+    DiseaseStateMachine model = model();
+    Population population = new Population(new ObjectGrid2D(2, 2));
+    int index = population.add(null);
+    RandomStream random = new RandomStream(9);
+    int mild = 0;
+    int draws = 20000;
+    for (int i = 0; i < draws; i++) {
+      population.setHealthStatus(index, HealthStatus.EXPOSED);
+      HealthStatus next = model.transition(population, index, 3, random);
+      if (next == HealthStatus.MILD_INFECTION) {
+        mild++;
+      } else {
+        assertEquals(HealthStatus.SEVERE_INFECTION, next);
+        assertEquals(6, population.diseaseExitDay[index]);
+      }
+    }
+    assertEquals(0.7, (double) mild / draws, 0.02);
+  }
+
+  @Test
+  public void stateEnteredAtTheChangeOfDayLastsAtLeastUntilTheNextOne() {
+    DiseaseStateMachine model = new DiseaseStateMachine.Builder(HealthStatus.EXPOSED)
+        .dwell(HealthStatus.EXPOSED, 1, 1)
+        .transition(HealthStatus.EXPOSED, HealthStatus.MILD_INFECTION, 1)
+        .dwell(HealthStatus.MILD_INFECTION, 0, 0)
+        .transition(HealthStatus.MILD_INFECTION, HealthStatus.RECOVERED, 1)
+        .build();
+    Population population = new Population(new ObjectGrid2D(2, 2));
+    int index = population.add(null);
+    population.setHealthStatus(index, HealthStatus.EXPOSED);
+    assertEquals(HealthStatus.MILD_INFECTION, model.transition(population, index, 4, new RandomStream(1)));
+    assertEquals(5, population.diseaseExitDay[index]);
+  }
+
+  @Test
+  public void statusWithoutRowNeverEnds() {
+    DiseaseStateMachine model = model();
+    Population population = new Population(new ObjectGrid2D(2, 2));
+    int index = population.add(null);
+    population.setHealthStatus(index, HealthStatus.MILD_INFECTION);
+    assertEquals(HealthStatus.RECOVERED, model.transition(population, index, 1, new RandomStream(1)));
+    assertEquals(Population.NO_DAY, population.diseaseExitDay[index]);
+    population.setHealthStatus(index, HealthStatus.RECOVERED);
+    assertEquals(HealthStatus.RECOVERED, model.transition(population, index, 2, new RandomStream(1)));
+    assertEquals(Population.NO_DAY, population.diseaseExitDay[index]);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void dwellWithoutTransitionIsRejected() {
+    new DiseaseStateMachine.Builder(HealthStatus.EXPOSED).dwell(HealthStatus.EXPOSED, 1, 2).build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidDwellIsRejected() {
+    new DiseaseStateMachine.Builder(HealthStatus.EXPOSED).dwell(HealthStatus.EXPOSED, 3, 2);
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.coronavirus.core.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.coronavirus.core.CoronaVirus;
+import com.coronavirus.core.Parameters;
+import com.coronavirus.model.Population;
+
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+
+/**
+ * Runs the camp of the data directory with the same seed on one thread and on
+ * several, and expects the same population after a few days.
+ */
+public class ParallelPopulationStepperTest {
+
+  private static final long SEED = 42;
+  private static final int DAYS = 3;
+  private static final int MINUTES_IN_DAY = 1440;
+
+  @Rule
+  public TemporaryFolder output = new TemporaryFolder();
+
+  @Test
+  public void sameSeedGivesSameRunOnAnyNumberOfThreads() throws IOException {
+    Population single = run(1);
+    Population parallel = run(4);
+
+    assertEquals(single.numHumans, parallel.numHumans);
+    assertArrayEquals(Arrays.copyOf(single.healthStatus, single.numHumans),
+        Arrays.copyOf(parallel.healthStatus, parallel.numHumans));
+    assertArrayEquals(Arrays.copyOf(single.position, single.numHumans),
+        Arrays.copyOf(parallel.position, parallel.numHumans));
+    assertArrayEquals(Arrays.copyOf(single.diseaseExitDay, single.numHumans),
+        Arrays.copyOf(parallel.diseaseExitDay, parallel.numHumans));
+  }
+
+  private Population run(int threads) throws IOException {
+    ParameterDatabase parameterDB = new ParameterDatabase();
+    parameterDB.set(new Parameter("parallelStepping"), "true");
+    parameterDB.set(new Parameter("numberOfThreads"), Integer.toString(threads));
+    parameterDB.set(new Parameter("humanTransmission"), "true");
+    CoronaVirus coronaVirus = new CoronaVirus(SEED, new Parameters(parameterDB));
+    coronaVirus.setOutputDirectory(this.output.newFolder());
+    coronaVirus.start();
+    double end = (double) DAYS * MINUTES_IN_DAY;
+    while (coronaVirus.schedule.getTime() < end - 1) {
+      if (!coronaVirus.schedule.step(coronaVirus)) {
+        break;
+      }
+    }
+    coronaVirus.finish();
+    return coronaVirus.getPopulation();
+  }
+
+}
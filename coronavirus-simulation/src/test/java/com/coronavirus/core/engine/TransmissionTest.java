@@ -0,0 +1,70 @@
+package com.coronavirus.core.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.coronavirus.core.disease.DiseaseStateMachine;
+import com.coronavirus.core.random.RandomStream;
+import com.coronavirus.core.random.RandomStreams;
+import com.coronavirus.model.Building;
+import com.coronavirus.model.Family;
+import com.coronavirus.model.Human;
+import com.coronavirus.model.Population;
+import com.coronavirus.model.enumeration.HealthStatus;
+import com.coronavirus.model.enumeration.Sex;
+
+import sim.field.continuous.Continuous2D;
+import sim.field.grid.ObjectGrid2D;
+
+public class TransmissionTest {
+
+  private static final int SUSCEPTIBLE = 10;
+
+  // an infection reorders the humans of the building, it must not make the walk skip anyone
+  @Test
+  public void certainInfectionReachesEverySusceptible() {
+    Building building = building(new Population(new ObjectGrid2D(4, 4)));
+    Transmission.infectEach(building, 1, new RandomStream(1));
+    assertEquals(0, building.countHumans(HealthStatus.SUSCEPTIBLE));
+    assertEquals(SUSCEPTIBLE, building.countHumans(HealthStatus.EXPOSED));
+  }
+
+  @Test
+  public void bothWaysOfDrawingInfectEachSusceptibleWithTheProbability() {
+    double probability = 0.3;
+    int rounds = 20000;
+    RandomStream random = new RandomStream(3);
+    long each = 0;
+    long aggregated = 0;
+    for (int r = 0; r < rounds; r++) {
+      Building building = building(new Population(new ObjectGrid2D(4, 4)));
+      Transmission.infectEach(building, probability, random);
+      each += building.countHumans(HealthStatus.EXPOSED);
+      building = building(new Population(new ObjectGrid2D(4, 4)));
+      Transmission.infectAggregated(building, probability, random);
+      aggregated += building.countHumans(HealthStatus.EXPOSED);
+    }
+    double expected = SUSCEPTIBLE * probability;
+    double standardError = Math.sqrt(SUSCEPTIBLE * probability * (1 - probability) / rounds);
+    assertEquals(expected, (double) each / rounds, 5 * standardError);
+    assertEquals(expected, (double) aggregated / rounds, 5 * standardError);
+  }
+
+  // a home with one infectious human among the susceptible ones
+  private static Building building(Population population) {
+    population.setDiseaseModel(new DiseaseStateMachine.Builder(HealthStatus.EXPOSED)
+        .dwell(HealthStatus.EXPOSED, 2, 4).transition(HealthStatus.EXPOSED, HealthStatus.RECOVERED, 1).build());
+    RandomStreams streams = new RandomStreams(7);
+    Continuous2D allHumans = new Continuous2D(0.1, 4, 4);
+    Building home = new Building(1, 1);
+    Family family = new Family(home);
+    for (int i = 0; i <= SUSCEPTIBLE; i++) {
+      Human human = new Human(30, Sex.F, family, home, home, streams, allHumans, population);
+      home.addRefugee(human);
+      human.setCurrentHealthStatus(i == SUSCEPTIBLE / 2 ? HealthStatus.MILD_INFECTION : HealthStatus.SUSCEPTIBLE);
+    }
+    return home;
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.coronavirus.core.random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RandomStreamTest {
+
+  @Test
+  public void sameSeedGivesSameSequence() {
+    RandomStream a = new RandomStream(7);
+    RandomStream b = new RandomStream(7);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(a.nextLong(), b.nextLong());
+    }
+  }
+
+  @Test
+  public void splitDoesNotAdvanceTheStream() {
+    RandomStream a = new RandomStream(7);
+    RandomStream b = new RandomStream(7);
+    a.split(3);
+    assertEquals(a.nextLong(), b.nextLong());
+  }
+
+  @Test
+  public void streamsOfHumansDoNotDependOnTheOrderTheyAreTaken() {
+    RandomStreams streams = new RandomStreams(11);
+    long second = streams.forHuman(1).nextLong();
+    long first = streams.forHuman(0).nextLong();
+    RandomStreams again = new RandomStreams(11);
+    assertEquals(first, again.forHuman(0).nextLong());
+    assertEquals(second, again.forHuman(1).nextLong());
+    assertFalse(first == second);
+  }
+
+  @Test
+  public void drawsStayInRange() {
+    RandomStream random = new RandomStream(3);
+    int[] seen = new int[10];
+    for (int i = 0; i < 100000; i++) {
+      double d = random.nextDouble();
+      assertTrue(d >= 0 && d < 1);
+      seen[random.nextInt(10)]++;
+    }
+    for (int count : seen) {
+      assertEquals(10000, count, 500);
+    }
+  }
+
+  @Test
+  public void binomialMeanIsNTimesP() {
+    assertBinomialMean(20, 0.3, 200000);
+    assertBinomialMean(500, 0.02, 100000);
+    assertBinomialMean(1000, 0.97, 20000);
+  }
+
+  @Test
+  public void binomialMeanHoldsForTinyProbabilityAndManyTrials() {
+    assertBinomialMean(1000000, 1e-6, 200000);
+    assertBinomialMean(Integer.MAX_VALUE, 1e-9, 200000);
+  }
+
+  @Test
+  public void binomialOfVanishingProbabilityEnds() {
+    RandomStream random = new RandomStream(13);
+    for (int i = 0; i < 100000; i++) {
+      assertEquals(0, random.nextBinomial(Integer.MAX_VALUE, 1e-300));
+    }
+  }
+
+  @Test
+  public void binomialEdgeCases() {
+    RandomStream random = new RandomStream(5);
+    assertEquals(0, random.nextBinomial(10, 0));
+    assertEquals(0, random.nextBinomial(0, 0.5));
+    assertEquals(10, random.nextBinomial(10, 1));
+    for (int i = 0; i < 10000; i++) {
+      int draw = random.nextBinomial(10, 0.5);
+      assertTrue(draw >= 0 && draw <= 10);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nextIntRejectsEmptyRange() {
+    new RandomStream(1).nextInt(0);
+  }
+
+  // the sample mean within five standard errors of n * p
+  private static void assertBinomialMean(int n, double p, int draws) {
+    RandomStream random = new RandomStream(n ^ Double.doubleToLongBits(p));
+    double sum = 0;
+    for (int i = 0; i < draws; i++) {
+      sum += random.nextBinomial(n, p);
+    }
+    double mean = (double) n * p;
+    double standardError = Math.sqrt(mean * (1 - p) / draws);
+    assertEquals("n=" + n + " p=" + p, mean, sum / draws, 5 * standardError);
+  }
+
+}